@@ -0,0 +1,127 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+import at.fhv.sysarch.lab4.simulation.Shot;
+import at.fhv.sysarch.lab4.simulation.SimulationResult;
+import at.fhv.sysarch.lab4.simulation.Simulator;
+import org.dyn4j.dynamics.RaycastResult;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The hot paths of a shot with the dyn4j engine: the whole break until
+// everything rests, a single step of a busy table and the raycast of the cue.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhysicsBenchmark {
+    private final static long SEED = 42;
+    // the white ball at its start position, straight into the rack
+    private final static Shot BREAK = Shot.at(Table.Constants.WIDTH * 0.25, 0, Math.PI, 1.0);
+    // balls slow down and collide, a busy table is restored after this many steps
+    private final static int STEPS_PER_RESTORE = 60;
+
+    @State(Scope.Thread)
+    public static class BreakState {
+        Simulator simulator;
+        Snapshot rack;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            simulator = new Simulator(SEED);
+            rack = simulator.getPhysics().snapshot();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MovingState {
+        Physics physics;
+        Snapshot moving;
+        int steps;
+
+        // all 16 balls spread over the table, each moving in another direction
+        @Setup(Level.Trial)
+        public void setUp() {
+            physics = new Physics();
+            new Simulator(SEED, physics, Physics.DEFAULT_STEP);
+
+            for (Ball b : Ball.values()) {
+                int i = b.ordinal();
+                double x = ((i % 4) - 1.5) * Table.Constants.WIDTH * 0.2;
+                double y = ((i / 4) - 1.5) * Table.Constants.HEIGHT * 0.2;
+                double angle = i * 2 * Math.PI / Ball.values().length;
+
+                physics.placeBall(b, x, y);
+                physics.getBalls().getBody(b).setLinearVelocity(Math.cos(angle), Math.sin(angle));
+            }
+
+            moving = physics.snapshot();
+            physics.restore(moving);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RaycastState {
+        Physics physics;
+        Ray ray;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Simulator simulator = new Simulator(SEED);
+            physics = (Physics) simulator.getPhysics();
+            ray = BREAK.getRay().get();
+        }
+    }
+
+    @Benchmark
+    public SimulationResult breakShot(BreakState state) {
+        state.simulator.restore(state.rack);
+
+        return state.simulator.shoot(BREAK);
+    }
+
+    // includes restoring the table every STEPS_PER_RESTORE steps
+    @Benchmark
+    public int stepMoving(MovingState state) {
+        if (++state.steps == STEPS_PER_RESTORE) {
+            state.physics.restore(state.moving);
+            state.steps = 0;
+        }
+
+        state.physics.step(Physics.DEFAULT_STEP);
+
+        return state.physics.getMotionTracker().getMovingBallCount();
+    }
+
+    // the same raycast Physics.strike does for Game.onMouseReleased
+    @Benchmark
+    public List<RaycastResult> cueRaycast(RaycastState state) {
+        List<RaycastResult> results = new ArrayList<>();
+        state.physics.getWorld().raycast(state.ray, 0.1, false, false, results);
+
+        return results;
+    }
+
+    // the whole strike, raycast and impulse, without stepping afterwards
+    @Benchmark
+    public Object strike(RaycastState state) {
+        return state.physics.strike(state.ray, new Vector2(0, 0));
+    }
+}
@@ -0,0 +1,77 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The check Physics.persist does for every contact of a ball with a pocket
+// sensor, with positions all over the table and right at the pockets.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PocketsBenchmark {
+    private final static int POSITIONS = 1024;
+
+    private Pockets pockets;
+    private final double[] tableX = new double[POSITIONS];
+    private final double[] tableY = new double[POSITIONS];
+    private final double[] pocketX = new double[POSITIONS];
+    private final double[] pocketY = new double[POSITIONS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pockets = new Pockets(new Table());
+        Random random = new Random(42);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            tableX[i] = (random.nextDouble() - 0.5) * Table.Constants.WIDTH;
+            tableY[i] = (random.nextDouble() - 0.5) * Table.Constants.HEIGHT;
+
+            // within two ball radii of a pocket center, some of them in the pocket
+            int p = random.nextInt(pockets.getCount());
+            pocketX[i] = pockets.getX(p) + (random.nextDouble() - 0.5) * 4 * Ball.Constants.RADIUS;
+            pocketY[i] = pockets.getY(p) + (random.nextDouble() - 0.5) * 4 * Ball.Constants.RADIUS;
+        }
+    }
+
+    @Benchmark
+    public boolean anywhere() {
+        int i = next++ & (POSITIONS - 1);
+
+        return pockets.isInPocket(tableX[i], tableY[i]);
+    }
+
+    @Benchmark
+    public boolean nearPocket() {
+        int i = next++ & (POSITIONS - 1);
+
+        return pockets.isInPocket(pocketX[i], pocketY[i]);
+    }
+
+    // capture with the reset a ball placed on the table again gets
+    @Benchmark
+    public boolean capture() {
+        int i = next++ & (POSITIONS - 1);
+        boolean captured = pockets.capture(Ball.ONE, pocketX[i], pocketY[i]);
+        pockets.reset(Ball.ONE, 0, 0);
+
+        return captured;
+    }
+}
@@ -0,0 +1,51 @@
+package at.fhv.sysarch.lab4.pit;
+
+import java.util.concurrent.TimeUnit;
+
+import at.fhv.sysarch.lab4.physics.Physics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time of one step against the number of balls for every broadphase. A step
+// is in real time as long as it takes less than Physics.DEFAULT_STEP (4.2 ms).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BallPitBenchmark {
+    @Param({"100", "250", "500", "1000", "2000", "4000"})
+    private int balls;
+
+    @Param({"DYNAMIC_AABB_TREE", "LAZY_AABB_TREE", "SAP", "UNIFORM_GRID"})
+    private Broadphase broadphase;
+
+    private BallPit pit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pit = new BallPit(balls, broadphase, 42);
+    }
+
+    // the balls slow down and fall asleep, every iteration starts with all of them moving
+    @Setup(Level.Iteration)
+    public void shake() {
+        pit.shake();
+    }
+
+    @Benchmark
+    public void step() {
+        pit.step(Physics.DEFAULT_STEP);
+    }
+}
@@ -0,0 +1,76 @@
+package at.fhv.sysarch.lab4.rendering;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.physics.Physics;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A frame of the Renderer drawn into a Canvas which is not part of any scene,
+// as at the start of a game. The first frame renders the cached layers with
+// snapshots, which need the JavaFX thread; all further frames only draw into
+// the canvas and can be drawn from the benchmark thread.
+//
+// Needs the JavaFX toolkit, on a machine without display e.g. with Monocle:
+// -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RendererBenchmark {
+    private final static int WIDTH = 1280;
+    private final static int HEIGHT = 720;
+    private final static long FRAME_NANOS = 1000_000_000L / 60;
+
+    private Renderer renderer;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        Physics physics = new Physics();
+        renderer = new Renderer(canvas.getGraphicsContext2D(), WIDTH, HEIGHT, physics);
+        new Game(renderer, physics, 42);
+
+        // draw every frame instead of idling, the resting table is stepped cheaply
+        renderer.setTableAtRest(false);
+
+        CountDownLatch layersRendered = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            renderer.handle(now += FRAME_NANOS);
+            renderer.handle(now += FRAME_NANOS);
+            layersRendered.countDown();
+        });
+        layersRendered.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Platform.exit();
+    }
+
+    @Benchmark
+    public void frame() {
+        renderer.handle(now += FRAME_NANOS);
+    }
+}
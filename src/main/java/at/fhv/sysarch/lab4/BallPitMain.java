@@ -0,0 +1,50 @@
+package at.fhv.sysarch.lab4;
+
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.pit.BallPit;
+import at.fhv.sysarch.lab4.pit.Broadphase;
+
+// headless stress test: steps ball pits of growing size and reports the time
+// per step against the ball count, and whether the step keeps up with real time.
+// arguments: broadphase (or "all"), comma separated ball counts, steps per pit
+public class BallPitMain {
+    private final static String DEFAULT_COUNTS = "100,250,500,1000,2000,4000";
+    private final static int DEFAULT_STEPS = 480;
+    // steps before the time is taken, to let the JIT compile the step
+    private final static int WARMUP_STEPS = 960;
+
+    public static void main(String[] args) {
+        String broadphases = args.length > 0 ? args[0] : Broadphase.UNIFORM_GRID.name();
+        String counts = args.length > 1 ? args[1] : DEFAULT_COUNTS;
+        int steps = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_STEPS;
+
+        double budget = Physics.DEFAULT_STEP * 1000;
+
+        System.out.printf("%-18s %6s %10s %10s %8s%n", "broadphase", "balls", "ms/step", "real time", "awake");
+
+        for (Broadphase broadphase : Broadphase.values()) {
+            if (!broadphases.equals("all") && !broadphases.equalsIgnoreCase(broadphase.name())) {
+                continue;
+            }
+
+            for (String count : counts.split(",")) {
+                BallPit pit = new BallPit(Integer.parseInt(count.trim()), broadphase, 42);
+
+                for (int i = 0; i < WARMUP_STEPS; i++) {
+                    pit.step(Physics.DEFAULT_STEP);
+                }
+                pit.shake();
+
+                long start = System.nanoTime();
+                for (int i = 0; i < steps; i++) {
+                    pit.step(Physics.DEFAULT_STEP);
+                }
+                double millis = (System.nanoTime() - start) / 1000_000.0 / steps;
+
+                // real time factor: simulated time per time spent simulating
+                System.out.printf("%-18s %6d %10.3f %9.1fx %8d%n",
+                        broadphase, pit.getBallCount(), millis, budget / millis, pit.getAwakeCount());
+            }
+        }
+    }
+}
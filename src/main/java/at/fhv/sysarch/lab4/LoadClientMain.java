@@ -0,0 +1,38 @@
+package at.fhv.sysarch.lab4;
+
+import at.fhv.sysarch.lab4.metrics.Histogram;
+import at.fhv.sysarch.lab4.server.LoadClient;
+
+// plays many matches at once on a running ServerMain and reports the latency
+// of the shots. arguments: port, matches, shots per match, seed
+public class LoadClientMain {
+    private final static int DEFAULT_PORT = 7777;
+    private final static int DEFAULT_MATCHES = 100;
+    private final static int DEFAULT_SHOTS = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int matches = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATCHES;
+        int shots = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SHOTS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        LoadClient client = new LoadClient(port, matches, shots, seed);
+
+        long start = System.nanoTime();
+        client.run();
+        double seconds = (System.nanoTime() - start) / 1000_000_000.0;
+
+        Histogram latency = client.getLatency();
+
+        System.out.printf("%d matches, %d shots in %.2f s: %.1f shots/s%n",
+                matches, client.getShots(), seconds, client.getShots() / seconds);
+        System.out.printf("shot latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                latency.getPercentile(50) / 1000_000.0,
+                latency.getPercentile(99) / 1000_000.0,
+                latency.getMax() / 1000_000.0);
+
+        if (client.getFailedMatches() > 0) {
+            System.out.println(client.getFailedMatches() + " matches failed");
+        }
+    }
+}
@@ -1,28 +1,84 @@
 package at.fhv.sysarch.lab4;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import at.fhv.sysarch.lab4.game.CueController;
 import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.game.TrajectoryPreview;
+import at.fhv.sysarch.lab4.metrics.StartupTimer;
+import at.fhv.sysarch.lab4.physics.EngineType;
 import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.physics.PhysicsLoop;
 import at.fhv.sysarch.lab4.rendering.Renderer;
+import at.fhv.sysarch.lab4.replay.MatchRecorder;
+import at.fhv.sysarch.lab4.simulation.ShotSearch;
+import at.fhv.sysarch.lab4.simulation.WarmUp;
+import at.fhv.sysarch.lab4.spectator.TableStreamEncoder;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 public class Main extends Application {
     private final static int SCENE_WIDTH = 1920;
     private final static int SCENE_HEIGHT = 1080;
 
+    // created when the class is loaded, before JavaFX starts up
+    private final static StartupTimer STARTUP = new StartupTimer();
+
     @Override
     public void start(Stage stage) {
+        STARTUP.mark("JavaFX started");
+        stage.setTitle("Billiard Game");
+
+        // --warmup plays a few hidden break shots behind a splash screen
+        // first, so the first real shot doesn't run interpreted
+        if (!getParameters().getRaw().contains("--warmup")) {
+            this.startGame(stage);
+            return;
+        }
+
+        Label label = new Label("Warming up ...");
+        label.setFont(Font.font(48));
+        stage.setScene(new Scene(new StackPane(label), SCENE_WIDTH, SCENE_HEIGHT, Color.BURLYWOOD));
+        stage.show();
+        STARTUP.mark("splash shown");
+
+        Thread warmUp = new Thread(() -> {
+            WarmUp.run(this.getEngineType().create(), Physics.DEFAULT_STEP, WarmUp.DEFAULT_SHOTS, 0);
+            STARTUP.mark("warm-up done");
+            Platform.runLater(() -> this.startGame(stage));
+        }, "warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private void startGame(Stage stage) {
         final Group root = new Group();
         final Scene s = new Scene(root, SCENE_WIDTH, SCENE_HEIGHT, Color.BURLYWOOD);
         final Canvas c = new Canvas(SCENE_WIDTH, SCENE_HEIGHT);
 
         CoordinateConverter.getInstance().setSceneHeight(SCENE_HEIGHT).setSceneWidth(SCENE_WIDTH);
 
-        Physics physics = new Physics();
+        // --engine=analytic plays with the event driven engine instead of dyn4j
+        EngineType engine = this.getEngineType();
+        PhysicsEngine physics = engine.create();
 
         Renderer renderer = new Renderer(
                 c.getGraphicsContext2D(),
@@ -33,23 +89,99 @@ public class Main extends Application {
 
         Game game = new Game(renderer, physics);
 
-        c.setOnMousePressed(game::onMousePressed);
-        c.setOnMouseReleased(game::onMouseReleased);
-        c.setOnMouseDragged(game::setOnMouseDragged);
+        if (getParameters().getRaw().contains("--computer")) {
+            game.setComputerOpponent(new ShotSearch(engine::create, Physics.DEFAULT_STEP));
+        }
+
+        // --record=<file> appends the match to a replay archive
+        String record = getParameters().getNamed().get("record");
+        if (record != null) {
+            try {
+                game.setMatchRecorder(new MatchRecorder(Path.of(record), engine));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        CueController cue = new CueController(renderer, game);
+        cue.setTrajectoryPreview(new TrajectoryPreview());
+        c.setOnMousePressed(cue::onMousePressed);
+        c.setOnMouseReleased(cue::onMouseReleased);
+        c.setOnMouseDragged(cue::onMouseDragged);
+
+        // F3 toggles the frame time overlay
+        s.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.F3) {
+                renderer.setMetricsOverlay(!renderer.isMetricsOverlay());
+            }
+        });
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    renderer.getFrameMetrics(), new ObjectName("at.fhv.sysarch.lab4:type=FrameMetrics"));
+        } catch (JMException e) {
+            System.err.println("Frame metrics not available over JMX: " + e.getMessage());
+        }
 
         root.getChildren().add(c);
         stage.setScene(s);
-        stage.setTitle("Billiard Game");
         stage.show();
+        STARTUP.mark("stage shown");
+
+        physics.getEvents().addBallPocketedListener(game);
+        physics.getEvents().addObjectsRestListener(game);
+        physics.getEvents().addBallsCollisionListener(game);
+        physics.setSnapshotListener(game);
+
+        // from here on the physics and the game rules only run on the physics thread
+        PhysicsLoop loop = new PhysicsLoop(physics);
+        game.setPhysicsLoop(loop, Platform::runLater);
+        renderer.setBallFrames(loop.getFrames());
 
-        physics.setBallPocketedListener(game);
-        physics.setObjectsRestListener(game);
-        physics.setBallsCollisionListener(game);
+        // --stream=<file> writes the table for spectators, see SpectatorMain
+        String stream = getParameters().getNamed().get("stream");
+        if (stream != null) {
+            try {
+                TableStreamEncoder encoder = new TableStreamEncoder(physics, game,
+                        new BufferedOutputStream(Files.newOutputStream(Path.of(stream))), loop.getStep());
+                physics.getEvents().addEventListener(encoder);
+                loop.addStepListener(encoder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
+        // the renderer draws into the canvas early in a pulse, the layout
+        // after it is the last step before the frame goes to the screen
+        Runnable firstFrame = new Runnable() {
+            private boolean drawn = false;
+
+            @Override
+            public void run() {
+                if (!drawn) {
+                    drawn = true;
+                    STARTUP.mark("first frame drawn");
+                    // not while the scene runs its listeners
+                    Platform.runLater(() -> s.removePostLayoutPulseListener(this));
+                }
+            }
+        };
+        s.addPostLayoutPulseListener(firstFrame);
+
+        // the resting table would skip frames, keep drawing until the frame time is steady
+        renderer.setKeepDrawing(true);
+        STARTUP.setOnDone(() -> renderer.setKeepDrawing(false));
+        renderer.setFrameListener(STARTUP::onFrame);
+
+        loop.start();
         renderer.start();
     }
 
+    private EngineType getEngineType() {
+        return EngineType.of(getParameters().getNamed().get("engine"));
+    }
+
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
\ No newline at end of file
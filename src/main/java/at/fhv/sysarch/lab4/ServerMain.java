@@ -0,0 +1,51 @@
+package at.fhv.sysarch.lab4;
+
+import java.io.IOException;
+
+import at.fhv.sysarch.lab4.metrics.Histogram;
+import at.fhv.sysarch.lab4.physics.AnalyticPhysics;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.server.MatchServer;
+
+// headless match server on localhost, reports the load until it is killed.
+// arguments: port and "analytic" to play with AnalyticPhysics
+public class ServerMain {
+    private final static int DEFAULT_PORT = 7777;
+    private final static long REPORT_INTERVAL_MILLIS = 5000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        boolean analytic = args.length > 1 && args[1].equals("analytic");
+
+        MatchServer server = analytic
+                ? new MatchServer(port, AnalyticPhysics::new, AnalyticPhysics.DEFAULT_STEP)
+                : new MatchServer(port, Physics::new, Physics.DEFAULT_STEP);
+        server.start();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Serving matches on port %d, %d cores, %s threads%n",
+                server.getPort(), cores, server.isVirtualThreads() ? "virtual" : "platform");
+
+        long lastShots = 0;
+
+        while (true) {
+            Thread.sleep(REPORT_INTERVAL_MILLIS);
+
+            long shots = server.getShots();
+            Histogram latency = server.getLatency();
+
+            System.out.printf("matches %d, peak %d (%.1f per core), %.1f shots/s, shot latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    server.getActiveMatches(),
+                    server.getPeakMatches(),
+                    (double) server.getPeakMatches() / cores,
+                    (shots - lastShots) * 1000.0 / REPORT_INTERVAL_MILLIS,
+                    latency.getPercentile(50) / 1000_000.0,
+                    latency.getPercentile(99) / 1000_000.0,
+                    latency.getMax() / 1000_000.0);
+
+            latency.reset();
+            server.resetPeakMatches();
+            lastShots = shots;
+        }
+    }
+}
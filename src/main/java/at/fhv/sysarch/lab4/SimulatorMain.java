@@ -0,0 +1,63 @@
+package at.fhv.sysarch.lab4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import at.fhv.sysarch.lab4.game.Table;
+import at.fhv.sysarch.lab4.physics.AnalyticPhysics;
+import at.fhv.sysarch.lab4.simulation.Shot;
+import at.fhv.sysarch.lab4.simulation.SimulationPool;
+import at.fhv.sysarch.lab4.simulation.SimulationResult;
+
+// headless entry point: fires random break shots at the white ball and
+// reports how many shots per second the simulation manages on this machine.
+// arguments: shots, seed, threads, "analytic" to use AnalyticPhysics and
+// "adaptive" to step by the speed of the balls
+public class SimulatorMain {
+    private final static int DEFAULT_SHOTS = 1000;
+
+    public static void main(String[] args) {
+        int shots = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SHOTS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        boolean analytic = args.length > 3 && args[3].equals("analytic");
+        boolean adaptive = args.length > 4 && args[4].equals("adaptive");
+
+        Random random = new Random(seed);
+        List<Shot> breakShots = new ArrayList<>();
+
+        for (int i = 0; i < shots; i++) {
+            breakShots.add(randomShot(random));
+        }
+
+        try (SimulationPool pool = analytic
+                ? new SimulationPool(threads, AnalyticPhysics::new, AnalyticPhysics.DEFAULT_STEP)
+                : new SimulationPool(threads)) {
+            pool.setAdaptive(adaptive);
+            long start = System.nanoTime();
+            List<SimulationResult> results = pool.simulate(seed, breakShots);
+            double seconds = (System.nanoTime() - start) / 1000_000_000.0;
+
+            long totalSteps = 0;
+            int pocketed = 0;
+
+            for (SimulationResult result : results) {
+                totalSteps += result.getSteps();
+                pocketed += result.getPocketedBalls().size();
+            }
+
+            System.out.printf("%d shots on %d threads in %.2f s: %.1f shots/s (%.1f per thread), %.1f steps/shot, %d balls pocketed%n",
+                    shots, threads, seconds, shots / seconds, shots / seconds / threads,
+                    (double) totalSteps / shots, pocketed);
+        }
+    }
+
+    private static Shot randomShot(Random random) {
+        double angle = Math.PI + (random.nextDouble() - 0.5) * Math.PI * 0.5;
+        double strength = 0.1 + random.nextDouble() * 0.9;
+
+        // the white ball starts at the same spot on every freshly racked table
+        return Shot.at(Table.Constants.WIDTH * 0.25, 0, angle, strength);
+    }
+}
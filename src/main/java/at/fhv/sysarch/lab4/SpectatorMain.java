@@ -0,0 +1,80 @@
+package at.fhv.sysarch.lab4;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import at.fhv.sysarch.lab4.game.Table;
+import at.fhv.sysarch.lab4.physics.BallFrames;
+import at.fhv.sysarch.lab4.rendering.Renderer;
+import at.fhv.sysarch.lab4.spectator.FollowInputStream;
+import at.fhv.sysarch.lab4.spectator.SpectatorPlayer;
+import at.fhv.sysarch.lab4.spectator.TableStreamDecoder;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+// watches a match streamed with Main --stream=<file>, without any physics of
+// its own: gradle runSpectator --args="--file=match.tbls --follow"
+// --follow waits for more of a match which is still being played
+public class SpectatorMain extends Application {
+    private final static int SCENE_WIDTH = 1920;
+    private final static int SCENE_HEIGHT = 1080;
+
+    @Override
+    public void start(Stage stage) {
+        final Group root = new Group();
+        final Scene s = new Scene(root, SCENE_WIDTH, SCENE_HEIGHT, Color.BURLYWOOD);
+        final Canvas c = new Canvas(SCENE_WIDTH, SCENE_HEIGHT);
+
+        CoordinateConverter.getInstance().setSceneHeight(SCENE_HEIGHT).setSceneWidth(SCENE_WIDTH);
+
+        String file = getParameters().getNamed().get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("Missing --file=<table stream>");
+        }
+
+        TableStreamDecoder decoder;
+        try {
+            InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(file)));
+            if (getParameters().getRaw().contains("--follow")) {
+                in = new FollowInputStream(in);
+            }
+            decoder = new TableStreamDecoder(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        BallFrames frames = new BallFrames();
+        Renderer renderer = new Renderer(
+                c.getGraphicsContext2D(),
+                SCENE_WIDTH,
+                SCENE_HEIGHT,
+                frames
+        );
+        renderer.setTable(new Table());
+        renderer.setTableAtRest(false);
+
+        root.getChildren().add(c);
+        stage.setScene(s);
+        stage.setTitle("Billiard Game - Spectator");
+        stage.show();
+
+        Thread player = new Thread(new SpectatorPlayer(decoder, frames, renderer, Platform::runLater), "spectator");
+        player.setDaemon(true);
+        player.start();
+
+        renderer.start();
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
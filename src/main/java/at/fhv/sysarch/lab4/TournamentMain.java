@@ -0,0 +1,52 @@
+package at.fhv.sysarch.lab4;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import at.fhv.sysarch.lab4.physics.AnalyticPhysics;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.tournament.Bots;
+import at.fhv.sysarch.lab4.tournament.Tournament;
+
+// headless bot tournament, writes <prefix>-matches.csv and <prefix>-summary.csv.
+// arguments: comma separated bots (or "all"), matches per pair of bots, seed,
+// threads, "analytic" to use AnalyticPhysics and the prefix of the CSV files
+public class TournamentMain {
+    private final static int DEFAULT_MATCHES = 100;
+    private final static String DEFAULT_PREFIX = "tournament";
+
+    public static void main(String[] args) {
+        String botNames = args.length > 0 ? args[0] : "all";
+        int matches = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATCHES;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        boolean analytic = args.length > 4 && args[4].equals("analytic");
+        String prefix = args.length > 5 ? args[5] : DEFAULT_PREFIX;
+
+        List<Bots> bots = new ArrayList<>();
+        if (botNames.equals("all")) {
+            bots.addAll(List.of(Bots.values()));
+        } else {
+            for (String name : botNames.split(",")) {
+                bots.add(Bots.valueOf(name.trim().toUpperCase()));
+            }
+        }
+
+        try (Tournament tournament = analytic
+                ? new Tournament(threads, AnalyticPhysics::new, AnalyticPhysics.DEFAULT_STEP)
+                : new Tournament(threads, Physics::new, Physics.DEFAULT_STEP)) {
+            tournament.play(bots, matches, seed);
+
+            Path matchesFile = Path.of(prefix + "-matches.csv");
+            Path summaryFile = Path.of(prefix + "-summary.csv");
+            tournament.writeMatches(matchesFile);
+            tournament.writeSummary(summaryFile);
+
+            double seconds = tournament.getNanos() / 1000_000_000.0;
+            System.out.printf("%d shots on %d threads in %.2f s: %.1f shots/s, see %s and %s%n",
+                    tournament.getShots(), threads, seconds, tournament.getShots() / seconds,
+                    matchesFile, summaryFile);
+        }
+    }
+}
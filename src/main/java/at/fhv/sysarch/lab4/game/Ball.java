@@ -1,10 +1,5 @@
 package at.fhv.sysarch.lab4.game;
 
-import org.dyn4j.dynamics.Body;
-import org.dyn4j.geometry.Circle;
-import org.dyn4j.geometry.Geometry;
-import org.dyn4j.geometry.MassType;
-
 import javafx.scene.paint.Color;
 
 public enum Ball {
@@ -28,8 +23,6 @@ public enum Ball {
     private Color c;
     private boolean solid;
 
-    private Body body;
-
     public Color getColor() {
         return this.c;
     }
@@ -38,40 +31,15 @@ public enum Ball {
         return this.solid;
     }
 
-    public void setPosition(double x, double y) {
-        this.body.translateToOrigin();
-        this.body.translate(x, y);
-    }
-
-    public Circle getShape() {
-        return (Circle) this.getBody().getFixture(0).getShape();
-    }
-
-    public Body getBody() {
-        return this.body;
-    }
-
     public boolean isWhite() {
         return this == WHITE;
     }
 
+    // a ball only describes identity and appearance, the physical bodies
+    // are owned by the BallSet of each Physics world
     private Ball(Color c, boolean solid) {
         this.c = c;
         this.solid = solid;
-
-        this.body = new Body();
-        this.body.addFixture(
-                Geometry.createCircle(Constants.RADIUS),
-                Constants.DENSITY,
-                Constants.FRICTION,
-                Constants.RESTITUTION);
-        this.body.translate(0, 0);
-        // disable rotation, looks strange
-        this.body.setMass(MassType.FIXED_ANGULAR_VELOCITY);
-        this.body.setLinearDamping(Constants.LINEAR_DAMPING);
-        this.body.setAngularDamping(Constants.ANGULAR_DAMPING);
-
-        this.body.setUserData(this);
     }
 
     public static class Constants {
@@ -80,23 +48,23 @@ public enum Ball {
         // pool balls have a mass of 0.17 kg
         private final static double MASS = 0.17;
         private final static double VOLUME = (4.0 / 3.0) * Math.PI * Math.pow(RADIUS, 3.0);
-        private final static double DENSITY = MASS / VOLUME; // density in kg/m^3
+        public final static double DENSITY = MASS / VOLUME; // density in kg/m^3
 
         // linear damping is used to slow down the balls over time due to
         // friction with the underlying table surface
         // NOTE: this is a purely experimental value, which is obtained by
         // trial and error, until the ball movement looked real enough
-        private final static double LINEAR_DAMPING = 0.95;
+        public final static double LINEAR_DAMPING = 0.95;
         // same as linear damping but for rotation
-        private final static double ANGULAR_DAMPING = 0.3;
+        final static double ANGULAR_DAMPING = 0.3;
 
         // https://billiards.colostate.edu/bd_articles/2005/april05.pdf
         // "Most reported values for pool balls are close to 0.06, meaning that 
         // the friction force can be only about 6% as large as the perpendicular 
         // impact force between the balls."
-        private final static double FRICTION = 0.06;
+        public final static double FRICTION = 0.06;
         // "Most experimental numbers I have seen for the coefficient of restitution
         // for pool balls have been in the range 0.90 to 0.96."
-        private final static double RESTITUTION = 0.93;
+        public final static double RESTITUTION = 0.93;
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package at.fhv.sysarch.lab4.game;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+
+// the physical bodies of all balls of one table, every Physics world owns
+// its own set so several tables can be simulated side by side
+public class BallSet {
+    private final Body[] bodies;
+
+    public BallSet() {
+        this.bodies = new Body[Ball.values().length];
+
+        for (Ball b : Ball.values()) {
+            this.bodies[b.ordinal()] = createBody(b);
+        }
+    }
+
+    // any number of balls at the origin which are none of Ball, e.g. for a
+    // BallPit; only to be accessed by index
+    public BallSet(int count) {
+        this.bodies = new Body[count];
+
+        for (int i = 0; i < count; i++) {
+            this.bodies[i] = createBody(null);
+        }
+    }
+
+    public int getCount() {
+        return this.bodies.length;
+    }
+
+    public Body getBody(Ball b) {
+        return this.bodies[b.ordinal()];
+    }
+
+    public Body getBody(int index) {
+        return this.bodies[index];
+    }
+
+    public Circle getShape(Ball b) {
+        return (Circle) this.getBody(b).getFixture(0).getShape();
+    }
+
+    public void setPosition(Ball b, double x, double y) {
+        Body body = this.getBody(b);
+        body.translateToOrigin();
+        body.translate(x, y);
+        // the ball is placed, not moved: don't let continuous collision detection
+        // sweep it from its old position in the next step
+        body.getInitialTransform().set(body.getTransform());
+    }
+
+    private static Body createBody(Ball b) {
+        Body body = new Body();
+        body.addFixture(
+                Geometry.createCircle(Ball.Constants.RADIUS),
+                Ball.Constants.DENSITY,
+                Ball.Constants.FRICTION,
+                Ball.Constants.RESTITUTION);
+        body.translate(0, 0);
+        // disable rotation, looks strange
+        body.setMass(MassType.FIXED_ANGULAR_VELOCITY);
+        body.setLinearDamping(Ball.Constants.LINEAR_DAMPING);
+        body.setAngularDamping(Ball.Constants.ANGULAR_DAMPING);
+
+        body.setUserData(b);
+
+        return body;
+    }
+}
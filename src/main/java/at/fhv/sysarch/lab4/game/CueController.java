@@ -0,0 +1,81 @@
+package at.fhv.sysarch.lab4.game;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.rendering.Renderer;
+import javafx.scene.input.MouseEvent;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+// The mouse input of the player in front of the screen: pressing places the
+// cue, dragging aims it and releasing shoots.
+public class CueController {
+    private final Renderer renderer;
+    private final Game game;
+    private Optional<TrajectoryPreview> preview = Optional.empty();
+
+    public CueController(Renderer renderer, Game game) {
+        this.renderer = renderer;
+        this.game = game;
+    }
+
+    // predicts the aimed shot while dragging, the renderer draws the prediction
+    public void setTrajectoryPreview(TrajectoryPreview preview) {
+        this.preview = Optional.of(preview);
+        this.renderer.setTrajectoryPreview(preview);
+    }
+
+    public void onMousePressed(MouseEvent e) {
+        if (!game.isAcceptingShots()) {
+            return;
+        }
+
+        double x = e.getX();
+        double y = e.getY();
+
+        this.renderer.setCue(
+                Optional.of(new Cue(x, y))
+        );
+    }
+
+    public void onMouseReleased(MouseEvent e) {
+        if (renderer.getCue().isEmpty()) {
+            return;
+        }
+
+        // the turn may have passed to the computer since the cue was pressed,
+        // the cue is put away without a shot then
+        if (game.isAcceptingShots()) {
+            Cue cue = this.renderer.getCue().get();
+            Optional<Ray> ray = cue.getShotRay();
+            Vector2 force = cue.getShotForce();
+
+            ray.ifPresent(r -> game.shoot(r, force));
+        }
+
+        this.renderer.setCue(Optional.empty());
+        this.preview.ifPresent(TrajectoryPreview::clear);
+    }
+
+    public void onMouseDragged(MouseEvent e) {
+        if (!game.isAcceptingShots() || renderer.getCue().isEmpty()) {
+            return;
+        }
+
+        double x = e.getX();
+        double y = e.getY();
+
+        Cue cue = this.renderer.getCue().get();
+        cue.setEnd(x, y);
+
+        this.preview.ifPresent(p -> {
+            Optional<Ray> ray = cue.getShotRay();
+
+            if (ray.isPresent()) {
+                p.aim(game.getRestTable(), ray.get(), cue.getShotForce());
+            } else {
+                p.clear();
+            }
+        });
+    }
+}
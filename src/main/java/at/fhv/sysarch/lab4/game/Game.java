@@ -4,126 +4,195 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import at.fhv.sysarch.lab4.physics.BallPocketedListener;
 import at.fhv.sysarch.lab4.physics.BallsCollisionListener;
 import at.fhv.sysarch.lab4.physics.ObjectsRestListener;
-import at.fhv.sysarch.lab4.physics.Physics;
-import at.fhv.sysarch.lab4.rendering.Renderer;
-import javafx.scene.input.MouseEvent;
-import org.dyn4j.dynamics.Body;
-import org.dyn4j.dynamics.RaycastResult;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.physics.PhysicsLoop;
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import at.fhv.sysarch.lab4.physics.SnapshotListener;
+import at.fhv.sysarch.lab4.replay.MatchRecorder;
+import at.fhv.sysarch.lab4.simulation.ShotSearch;
 import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
 
 import static at.fhv.sysarch.lab4.rendering.Renderer.SCALE;
 
-public class Game implements BallPocketedListener, ObjectsRestListener, BallsCollisionListener {
-    private final Renderer renderer;
-    private final Physics physics;
-    private int player1Score = 0;
-    private int player2Score = 0;
-    private Player currentPlayer = Player.PLAYER_ONE;
-    private boolean isFoul = false;
-    private boolean isWhiteBallPocketed = false;
+public class Game implements BallPocketedListener, ObjectsRestListener, BallsCollisionListener, SnapshotListener {
+    // slots of the game state in a physics snapshot
+    private final static int PLAYER_SLOT = 0;
+    private final static int PLAYER1_SCORE_SLOT = 1;
+    private final static int PLAYER2_SCORE_SLOT = 2;
+    private final static int FLAGS_SLOT = 3;
+    private final static int WHITE_BALL_X_SLOT = 4;
+    private final static int WHITE_BALL_Y_SLOT = 5;
+    private final static int SHOT_SLOT = 6;
+
+    private final static int BALLS_MOVING_FLAG = 1;
+
+    private final GameView view;
+    private final PhysicsEngine physics;
+    private final long seed;
+    private final Random random;
+    // the rules are applied to these after every shot
+    private final GameState state = new GameState();
+    private final ShotEvents shot = new ShotEvents();
+    // the player of the state, for other threads
+    private volatile Player currentPlayer = Player.PLAYER_ONE;
     private double whiteBallX = Table.Constants.WIDTH * 0.25;
     private double whiteBallY = 0;
-    private boolean ballsMoving = false;
-    private boolean ballsTouched = false;
-    private String foulMessage = "";
-    private String actionMessage = "";
-    private boolean regularBallPocketed = false;
+    private volatile boolean ballsMoving = false;
     private final List<Ball> pocketedBalls = new ArrayList<>();
+    // times the table was cleared and racked again, not part of a snapshot
+    private int racksCleared = 0;
+    private Optional<ShotSearch> computerOpponent = Optional.empty();
+    private Optional<MatchRecorder> recorder = Optional.empty();
+    // the state the table came to rest in, every shot starts from it
+    private Snapshot restState;
+    // the same table for threads other than the physics thread, e.g. for a TrajectoryPreview
+    private volatile Snapshot restTable;
+    // the physics with its listeners (all of the rules) and the view each
+    // belong to one thread, by default the one which created the game
+    private Executor physicsExecutor = Runnable::run;
+    private Executor viewExecutor = Runnable::run;
+
+    public Game(GameView view, PhysicsEngine physics) {
+        this(view, physics, System.nanoTime());
+    }
 
-    public Game(Renderer renderer, Physics physics) {
-        this.renderer = renderer;
+    // the seed decides how the balls are racked, see MatchRecorder
+    public Game(GameView view, PhysicsEngine physics, long seed) {
+        this.view = view;
         this.physics = physics;
-        renderer.setStrikeMessage("Next Strike: " + currentPlayer.name);
+        this.seed = seed;
+        this.random = new Random(seed);
+        view.setStrikeMessage("Next Strike: " + currentPlayer.name);
         this.initWorld();
     }
 
-    public void onMousePressed(MouseEvent e) {
-        if (ballsMoving) {
-            return;
-        }
+    // lets the computer play the shots of player two, the search runs in the
+    // background: the game needs a physics executor, e.g. a PhysicsLoop
+    public void setComputerOpponent(ShotSearch search) {
+        this.computerOpponent = Optional.of(search);
+    }
 
-        double x = e.getX();
-        double y = e.getY();
+    // shots are played with the physics executor, the view is updated with the view executor
+    public void setExecutors(Executor physicsExecutor, Executor viewExecutor) {
+        this.physicsExecutor = physicsExecutor;
+        this.viewExecutor = viewExecutor;
+    }
 
-        this.renderer.setCue(
-                Optional.of(new Cue(x, y))
-        );
+    // shots are played on the thread of the loop, the view is updated with the
+    // view executor, e.g. on the FX thread; the loop sleeps while the balls rest
+    public void setPhysicsLoop(PhysicsLoop loop, Executor viewExecutor) {
+        this.setExecutors(loop, viewExecutor);
+        loop.setAtRest(() -> !ballsMoving);
     }
 
-    public void onMouseReleased(MouseEvent e) {
-        if (ballsMoving || renderer.getCue().isEmpty()) {
-            return;
-        }
+    public void setMatchRecorder(MatchRecorder recorder) {
+        this.recorder = Optional.of(recorder);
+        recorder.startMatch(seed);
+    }
+
+    public Player getCurrentPlayer() {
+        return currentPlayer;
+    }
 
-        Cue cue = this.renderer.getCue().get();
-        Optional<Ray> ray = cue.getShotRay();
+    // the scores as shown, including the balls pocketed by a shot which is
+    // still running; on the physics thread
+    public int getPlayer1Score() {
+        return this.getLiveScore(Player.PLAYER_ONE);
+    }
 
-        if (ray.isPresent()) {
-            ArrayList<RaycastResult> results = new ArrayList<>();
-            boolean result = this.physics.getWorld().raycast(ray.get(), 0.1, false, false, results);
+    public int getPlayer2Score() {
+        return this.getLiveScore(Player.PLAYER_TWO);
+    }
 
-            if (result && results.get(0).getBody().getUserData() instanceof Ball) {
-                RaycastResult hit = results.get(0);
-                Body body = hit.getBody();
-                Ball ball = (Ball) body.getUserData();
+    // the balls as the next shot finds them, readable from any thread
+    public Snapshot getRestTable() {
+        return restTable;
+    }
 
-                if (!ball.isWhite()) {
-                    isFoul = true;
-                    foulMessage = "Foul: Direct hit of a regular ball!";
-                }
+    // the Rules.FOUL_ flags of the last shot which came to rest, on the physics thread
+    public int getFouls() {
+        return state.getFouls();
+    }
 
-                whiteBallX = Ball.WHITE.getBody().getTransform().getTranslationX();
-                whiteBallY = Ball.WHITE.getBody().getTransform().getTranslationY();
+    public int getRacksCleared() {
+        return racksCleared;
+    }
 
-                hit.getBody().applyForce(cue.getShotForce().multiply(SCALE));
-            }
-        }
+    public boolean isBallsMoving() {
+        return ballsMoving;
+    }
 
-        this.renderer.setCue(Optional.empty());
+    // whether the player in front of the table may take the next shot
+    public boolean isAcceptingShots() {
+        return !ballsMoving && !isComputerTurn();
     }
 
-    public void setOnMouseDragged(MouseEvent e) {
-        if (ballsMoving || renderer.getCue().isEmpty()) {
-            return;
+    // plays the shot with the physics executor; the cue starts at the start of
+    // the ray, the force IN WORLD COORDINATES as Cue.getShotForce() delivers it
+    public void shoot(Ray ray, Vector2 force) {
+        physicsExecutor.execute(() -> {
+            // checked again on the physics thread: a shot may be queued while
+            // another one starts, e.g. by releasing the cue twice
+            if (!ballsMoving && !isComputerTurn()) {
+                this.strike(ray, force);
+            }
+        });
+    }
+
+    private void strike(Ray ray, Vector2 force) {
+        // start from exactly the state the table came to rest in, so the
+        // shot plays out the same in a replay
+        if (restState == null) {
+            restState = physics.snapshot();
         }
+        physics.restore(restState);
 
-        double x = e.getX();
-        double y = e.getY();
+        recorder.ifPresent(r -> r.recordShot(ray.getStart(), force));
 
-        this.renderer.getCue().get().setEnd(x, y);
-    }
+        Optional<Ball> hit = this.physics.strike(ray, force.multiply(SCALE));
 
-    private void placeBalls(List<Ball> balls) {
-        Collections.shuffle(balls);
+        if (hit.isPresent()) {
+            // the balls only start moving in the next physics step
+            updateView(r -> r.setTableAtRest(false));
 
-        // positioning the billiard balls IN WORLD COORDINATES: meters
-        int row = balls.size() > 14 ? 0 : 1;
-        int col = 0;
-        int colSize = 5;
+            shot.reset();
+            shot.struck(hit.get());
 
-        double y0 = -2 * Ball.Constants.RADIUS * 2;
-        double x0 = -Table.Constants.WIDTH * 0.25 - Ball.Constants.RADIUS;
+            whiteBallX = physics.getX(Ball.WHITE);
+            whiteBallY = physics.getY(Ball.WHITE);
+        }
+    }
 
-        for (Ball b : balls) {
-            double y = y0 + (2 * Ball.Constants.RADIUS * row) + (col * Ball.Constants.RADIUS);
-            double x = x0 + (2 * Ball.Constants.RADIUS * col);
+    private boolean isComputerTurn() {
+        return computerOpponent.isPresent() && currentPlayer == Player.PLAYER_TWO;
+    }
 
-            b.setPosition(x, y);
-            b.getBody().setLinearVelocity(0, 0);
+    private void playComputerShot() {
+        // the search runs in the background, the shot is played on the physics thread again
+        computerOpponent.get().search(physics).thenAccept(shot ->
+                shot.getRay().ifPresent(r -> physicsExecutor.execute(() -> {
+                    if (!ballsMoving && isComputerTurn()) {
+                        this.strike(r, shot.getForce());
+                    }
+                }))
+        );
+    }
 
-            renderer.addBall(b);
+    private void placeBalls(List<Ball> balls) {
+        Collections.shuffle(balls, random);
 
-            row++;
+        Rack.place(balls, physics);
 
-            if (row == colSize) {
-                row = 0;
-                col++;
-                colSize--;
-            }
+        for (Ball b : balls) {
+            updateView(r -> r.addBall(b));
         }
     }
 
@@ -136,120 +205,182 @@ public class Game implements BallPocketedListener, ObjectsRestListener, BallsCol
             }
 
             balls.add(b);
-            physics.getWorld().addBody(b.getBody());
         }
 
 
         this.placeBalls(balls);
 
-        Ball.WHITE.setPosition(Table.Constants.WIDTH * 0.25, 0);
-        physics.getWorld().addBody(Ball.WHITE.getBody());
-        renderer.addBall(Ball.WHITE);
+        physics.placeBall(Ball.WHITE, Table.Constants.WIDTH * 0.25, 0);
+        updateView(r -> r.addBall(Ball.WHITE));
+
+        updateView(r -> r.setTable(physics.getTable()));
 
-        Table table = new Table();
-        physics.getWorld().addBody(table.getBody());
-        renderer.setTable(table);
+        restTable = physics.snapshot();
     }
 
     @Override
     public boolean onBallPocketed(Ball b) {
-        b.getBody().setLinearVelocity(0, 0);
-
-        if (b.isWhite()) {
-            isWhiteBallPocketed = true;
-            isFoul = true;
-            foulMessage = "Foul: White Ball Pocketed!";
-            renderer.removeBall(b);
-        } else {
+        shot.pocketed(b);
+        updateView(r -> r.removeBall(b));
+
+        if (!b.isWhite()) {
             pocketedBalls.add(b);
-            regularBallPocketed = true;
-            renderer.removeBall(b);
-            physics.getWorld().removeBody(b.getBody());
-            updatePlayerScore(1);
+            physics.removeBall(b);
+            updateScores();
         }
 
         return true;
     }
 
-    private void updatePlayerScore(int score) {
-        if (currentPlayer == Player.PLAYER_ONE) {
-            player1Score += score;
-            renderer.setPlayer1Score(player1Score);
-        } else {
-            player2Score += score;
-            renderer.setPlayer2Score(player2Score);
-        }
+    // the balls pocketed by the current shot already count for the player
+    private int getLiveScore(Player p) {
+        return state.getScore(p) + (state.getPlayer() == p ? shot.getRegularPocketedCount() : 0);
+    }
+
+    private void updateScores() {
+        int score1 = this.getLiveScore(Player.PLAYER_ONE);
+        int score2 = this.getLiveScore(Player.PLAYER_TWO);
+
+        updateView(r -> {
+            r.setPlayer1Score(score1);
+            r.setPlayer2Score(score2);
+        });
+    }
+
+    // the view is only used on its own thread, see setExecutors
+    private void updateView(Consumer<GameView> update) {
+        viewExecutor.execute(() -> update.accept(view));
     }
 
     @Override
     public void onEndAllObjectsRest() {
         ballsMoving = true;
+        updateView(r -> r.setTableAtRest(false));
     }
 
     private void switchPlayer() {
-        currentPlayer = currentPlayer.getOpponent();
-        renderer.setStrikeMessage("Next Strike: " + currentPlayer.name);
+        currentPlayer = state.getPlayer();
+        String strikeMessage = "Next Strike: " + currentPlayer.name;
+        updateView(r -> r.setStrikeMessage(strikeMessage));
     }
 
     private void resetGame() {
-
-        for (Ball b: pocketedBalls) {
-            physics.getWorld().addBody(b.getBody());
-        }
-
         this.placeBalls(pocketedBalls);
 
         pocketedBalls.clear();
-
+        racksCleared++;
     }
 
     @Override
     public void onStartAllObjectsRest() {
         ballsMoving = false;
+        updateView(r -> r.setTableAtRest(true));
 
-        if (pocketedBalls.size() >= 14) {
+        Player shooter = state.getPlayer();
+        Rules.apply(state, shot, state);
+        shot.reset();
+
+        if (state.isRacked()) {
             resetGame();
         }
 
-        if (!ballsTouched) {
-            foulMessage = foulMessage.equals("") ? "Foul: White ball did not touch any other ball(s)!" : foulMessage;
-            isFoul = true;
-        }
+        String action = state.getFouls() != 0
+                ? shooter.getName() + " committed a foul, switching players."
+                : state.isPlayerSwitched() ? shooter.getName() + " did not pocket a ball, switching players." : "";
 
-        if (isFoul) {
-            actionMessage = currentPlayer.getName() + " committed a foul, switching players.";
-            updatePlayerScore(-1);
-            switchPlayer();
-            isFoul = false;
-        } else if (!regularBallPocketed) {
-            actionMessage = currentPlayer.getName() + " did not pocket a ball, switching players.";
+        updateScores();
+        if (state.isPlayerSwitched()) {
             switchPlayer();
         }
 
-        if (isWhiteBallPocketed) {
-            renderer.addBall(Ball.WHITE);
+        if (state.isWhiteRespotted()) {
+            updateView(r -> r.addBall(Ball.WHITE));
             resetWhiteBall();
-            isWhiteBallPocketed = false;
         }
 
-        renderer.setActionMessage(actionMessage);
-        actionMessage = "";
-        renderer.setFoulMessage(foulMessage);
-        foulMessage = "";
+        String foul = foulMessage(state.getFouls());
+        updateView(r -> {
+            r.setActionMessage(action);
+            r.setFoulMessage(foul);
+        });
+
+        restState = physics.snapshot();
+        restTable = restState;
+
+        if (isComputerTurn()) {
+            playComputerShot();
+        }
+    }
+
+    // one message for the worst of the fouls
+    private static String foulMessage(int fouls) {
+        if ((fouls & Rules.FOUL_WHITE_POCKETED) != 0) {
+            return "Foul: White Ball Pocketed!";
+        } else if ((fouls & Rules.FOUL_DIRECT_HIT) != 0) {
+            return "Foul: Direct hit of a regular ball!";
+        } else if ((fouls & Rules.FOUL_NO_CONTACT) != 0) {
+            return "Foul: White ball did not touch any other ball(s)!";
+        }
 
-        regularBallPocketed = false;
-        ballsTouched = false;
+        return "";
     }
 
     private void resetWhiteBall() {
-        Ball.WHITE.setPosition(whiteBallX, whiteBallY);
+        physics.placeBall(Ball.WHITE, whiteBallX, whiteBallY);
     }
 
     @Override
-    public void onBallsCollide(Ball b1, Ball b2) {
-        if (b1.isWhite() || b2.isWhite()) {
-            ballsTouched = true;
+    public void onSnapshot(Snapshot s) {
+        int flags = ballsMoving ? BALLS_MOVING_FLAG : 0;
+
+        s.setGameState(PLAYER_SLOT, state.getPlayer().ordinal());
+        s.setGameState(PLAYER1_SCORE_SLOT, state.getPlayer1Score());
+        s.setGameState(PLAYER2_SCORE_SLOT, state.getPlayer2Score());
+        s.setGameState(FLAGS_SLOT, flags);
+        s.setGameState(WHITE_BALL_X_SLOT, whiteBallX);
+        s.setGameState(WHITE_BALL_Y_SLOT, whiteBallY);
+        s.setGameState(SHOT_SLOT, shot.pack());
+    }
+
+    @Override
+    public void onRestore(Snapshot s) {
+        int flags = (int) s.getGameState(FLAGS_SLOT);
+
+        shot.unpack((int) s.getGameState(SHOT_SLOT));
+        ballsMoving = (flags & BALLS_MOVING_FLAG) != 0;
+        whiteBallX = s.getGameState(WHITE_BALL_X_SLOT);
+        whiteBallY = s.getGameState(WHITE_BALL_Y_SLOT);
+
+        // keep the order the balls were pocketed in, it decides the next rack
+        pocketedBalls.removeIf(b -> s.isOnTable(b));
+
+        for (Ball b : Ball.values()) {
+            updateView(r -> r.removeBall(b));
+
+            if (!s.isOnTable(b)) {
+                if (!pocketedBalls.contains(b)) {
+                    pocketedBalls.add(b);
+                }
+            } else if (!b.isWhite() || !shot.isWhitePocketed()) {
+                updateView(r -> r.addBall(b));
+            }
         }
+
+        // the balls of the rack pocketed before the current shot
+        state.set(Player.values()[(int) s.getGameState(PLAYER_SLOT)],
+                (int) s.getGameState(PLAYER1_SCORE_SLOT),
+                (int) s.getGameState(PLAYER2_SCORE_SLOT),
+                pocketedBalls.size() - shot.getRegularPocketedCount());
+        currentPlayer = state.getPlayer();
+
+        updateScores();
+        String strikeMessage = "Next Strike: " + currentPlayer.name;
+        updateView(r -> r.setStrikeMessage(strikeMessage));
+    }
+
+    @Override
+    public void onBallsCollide(Ball b1, Ball b2) {
+        shot.collided(b1, b2);
     }
 
     public enum Player {
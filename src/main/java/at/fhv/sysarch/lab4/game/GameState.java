@@ -0,0 +1,76 @@
+package at.fhv.sysarch.lab4.game;
+
+// The state of a match between two shots: whose turn it is, the scores and
+// how many balls of the current rack were pocketed. After Rules.apply it
+// also tells what the last shot did to the match.
+public class GameState {
+    private Game.Player player = Game.Player.PLAYER_ONE;
+    private int score1 = 0;
+    private int score2 = 0;
+    private int rackPocketed = 0;
+
+    // outcome of the last shot
+    private int fouls = 0;
+    private boolean playerSwitched = false;
+    private boolean racked = false;
+    private boolean whiteRespotted = false;
+
+    public void set(Game.Player player, int score1, int score2, int rackPocketed) {
+        this.player = player;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.rackPocketed = rackPocketed;
+        this.setOutcome(0, false, false, false);
+    }
+
+    public void set(GameState other) {
+        this.set(other.player, other.score1, other.score2, other.rackPocketed);
+        this.setOutcome(other.fouls, other.playerSwitched, other.racked, other.whiteRespotted);
+    }
+
+    void setOutcome(int fouls, boolean playerSwitched, boolean racked, boolean whiteRespotted) {
+        this.fouls = fouls;
+        this.playerSwitched = playerSwitched;
+        this.racked = racked;
+        this.whiteRespotted = whiteRespotted;
+    }
+
+    public Game.Player getPlayer() {
+        return player;
+    }
+
+    public int getScore(Game.Player p) {
+        return p == Game.Player.PLAYER_ONE ? score1 : score2;
+    }
+
+    public int getPlayer1Score() {
+        return score1;
+    }
+
+    public int getPlayer2Score() {
+        return score2;
+    }
+
+    public int getRackPocketed() {
+        return rackPocketed;
+    }
+
+    // bit mask of Rules.FOUL_*, 0 for a clean shot
+    public int getFouls() {
+        return fouls;
+    }
+
+    public boolean isPlayerSwitched() {
+        return playerSwitched;
+    }
+
+    // the pocketed balls have to be racked again
+    public boolean isRacked() {
+        return racked;
+    }
+
+    // the white ball has to be put back where it was struck
+    public boolean isWhiteRespotted() {
+        return whiteRespotted;
+    }
+}
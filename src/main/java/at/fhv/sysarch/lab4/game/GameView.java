@@ -0,0 +1,24 @@
+package at.fhv.sysarch.lab4.game;
+
+// Everything Game shows of a match: the Renderer draws it, a headless match
+// of the MatchServer only keeps what its clients are sent.
+public interface GameView {
+    void setStrikeMessage(String strikeMessage);
+
+    void setActionMessage(String actionMessage);
+
+    void setFoulMessage(String foulMessage);
+
+    void setPlayer1Score(int player1Score);
+
+    void setPlayer2Score(int player2Score);
+
+    void addBall(Ball b);
+
+    void removeBall(Ball b);
+
+    void setTable(Table t);
+
+    // the balls stopped moving, or started to
+    void setTableAtRest(boolean tableAtRest);
+}
@@ -0,0 +1,100 @@
+package at.fhv.sysarch.lab4.game;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.simulation.Shot;
+import org.dyn4j.geometry.Ray;
+
+// A match without renderer: a Game with a physics of its own, played on the
+// calling thread. Shots are played as fast as possible, the physics is
+// stepped until the game shows the table at rest again.
+public class HeadlessMatch implements GameView {
+    // give up on shots which did not come to rest within one minute
+    private final static double MAX_SIMULATED_TIME = 60.0;
+
+    private final PhysicsEngine physics;
+    private final double step;
+    private final int maxSteps;
+    private final Game game;
+    private boolean atRest = true;
+
+    public HeadlessMatch(long seed, PhysicsEngine physics, double step) {
+        this.physics = physics;
+        this.step = step;
+        this.maxSteps = (int) Math.ceil(MAX_SIMULATED_TIME / step);
+
+        this.game = new Game(this, physics, seed);
+        physics.getEvents().addBallPocketedListener(game);
+        physics.getEvents().addObjectsRestListener(game);
+        physics.getEvents().addBallsCollisionListener(game);
+        physics.setSnapshotListener(game);
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public PhysicsEngine getPhysics() {
+        return physics;
+    }
+
+    // false after a shot which did not come to rest in time
+    public boolean isAtRest() {
+        return atRest;
+    }
+
+    // plays the shot until the table rests, returns the number of steps: none
+    // if the cue hit no ball, the game waits for another shot then
+    public int shoot(Shot shot) {
+        // the game plays the shot right away, a hit ball sets the table moving
+        Optional<Ray> ray = shot.getRay();
+        ray.ifPresent(r -> game.shoot(r, shot.getForce()));
+
+        int steps = 0;
+        while (!atRest && steps < maxSteps) {
+            physics.step(step);
+            steps++;
+        }
+
+        return steps;
+    }
+
+    @Override
+    public void setTableAtRest(boolean tableAtRest) {
+        this.atRest = tableAtRest;
+    }
+
+    // the state of the match is read from the game, not from the messages
+    @Override
+    public void setStrikeMessage(String strikeMessage) {
+    }
+
+    @Override
+    public void setActionMessage(String actionMessage) {
+    }
+
+    @Override
+    public void setFoulMessage(String foulMessage) {
+    }
+
+    @Override
+    public void setPlayer1Score(int player1Score) {
+    }
+
+    @Override
+    public void setPlayer2Score(int player2Score) {
+    }
+
+    @Override
+    public void addBall(Ball b) {
+    }
+
+    @Override
+    public void removeBall(Ball b) {
+    }
+
+    @Override
+    public void setTable(Table t) {
+    }
+}
@@ -0,0 +1,36 @@
+package at.fhv.sysarch.lab4.game;
+
+import java.util.List;
+
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+
+public class Rack {
+
+    private Rack() {
+    }
+
+    public static void place(List<Ball> balls, PhysicsEngine physics) {
+        // positioning the billiard balls IN WORLD COORDINATES: meters
+        int row = balls.size() > 14 ? 0 : 1;
+        int col = 0;
+        int colSize = 5;
+
+        double y0 = -2 * Ball.Constants.RADIUS * 2;
+        double x0 = -Table.Constants.WIDTH * 0.25 - Ball.Constants.RADIUS;
+
+        for (Ball b : balls) {
+            double y = y0 + (2 * Ball.Constants.RADIUS * row) + (col * Ball.Constants.RADIUS);
+            double x = x0 + (2 * Ball.Constants.RADIUS * col);
+
+            physics.placeBall(b, x, y);
+
+            row++;
+
+            if (row == colSize) {
+                row = 0;
+                col++;
+                colSize--;
+            }
+        }
+    }
+}
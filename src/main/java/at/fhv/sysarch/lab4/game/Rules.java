@@ -0,0 +1,63 @@
+package at.fhv.sysarch.lab4.game;
+
+// The rules of a match, without any state of their own: the outcome of a
+// shot only depends on the state before it and its ShotEvents. Nothing is
+// allocated, so searches and tournaments can evaluate shots in bulk.
+//
+// - striking a regular ball with the cue, pocketing the white ball and the
+//   white ball not touching any other ball are fouls, a foul costs a point
+// - every pocketed regular ball scores a point, even in a foul
+// - the turn passes after a foul or a shot which pocketed nothing
+// - once 14 balls of a rack are pocketed, they are racked again
+public final class Rules {
+    public final static int FOUL_DIRECT_HIT = 1;
+    public final static int FOUL_WHITE_POCKETED = 2;
+    public final static int FOUL_NO_CONTACT = 4;
+
+    public final static int RERACK_POCKETED = 14;
+
+    private Rules() {
+    }
+
+    public static int getFouls(ShotEvents shot) {
+        return (shot.isDirectHit() ? FOUL_DIRECT_HIT : 0)
+                | (shot.isWhitePocketed() ? FOUL_WHITE_POCKETED : 0)
+                | (shot.isWhiteTouched() ? 0 : FOUL_NO_CONTACT);
+    }
+
+    public static int getScoreDelta(ShotEvents shot) {
+        return shot.getRegularPocketedCount() - (getFouls(shot) != 0 ? 1 : 0);
+    }
+
+    public static boolean isTurnKept(ShotEvents shot) {
+        return getFouls(shot) == 0 && shot.getRegularPocketedCount() > 0;
+    }
+
+    // the state after the shot into next, which may be the state itself
+    public static void apply(GameState state, ShotEvents shot, GameState next) {
+        Game.Player player = state.getPlayer();
+        int score1 = state.getPlayer1Score();
+        int score2 = state.getPlayer2Score();
+        int rackPocketed = state.getRackPocketed() + shot.getRegularPocketedCount();
+
+        int delta = getScoreDelta(shot);
+        if (player == Game.Player.PLAYER_ONE) {
+            score1 += delta;
+        } else {
+            score2 += delta;
+        }
+
+        boolean racked = rackPocketed >= RERACK_POCKETED;
+        if (racked) {
+            rackPocketed = 0;
+        }
+
+        boolean switched = !isTurnKept(shot);
+        if (switched) {
+            player = player.getOpponent();
+        }
+
+        next.set(player, score1, score2, rackPocketed);
+        next.setOutcome(getFouls(shot), switched, racked, shot.isWhitePocketed());
+    }
+}
@@ -0,0 +1,74 @@
+package at.fhv.sysarch.lab4.game;
+
+// What happened during one shot, as far as the Rules care: the ball the cue
+// struck, the balls which were pocketed and whether the white ball touched
+// another ball. Collected from the physics events while the balls move and
+// reused for every shot.
+public class ShotEvents {
+    private final static int NONE = -1;
+    private final static int WHITE_BIT = 1 << Ball.WHITE.ordinal();
+    private final static int POCKETED_BITS = (1 << Ball.values().length) - 1;
+    private final static int TOUCHED_BIT = 1 << Ball.values().length;
+    private final static int STRUCK_SHIFT = Ball.values().length + 1;
+
+    private int struck = NONE;
+    // bit mask by ordinal
+    private int pocketed = 0;
+    private boolean whiteTouched = false;
+
+    public void reset() {
+        struck = NONE;
+        pocketed = 0;
+        whiteTouched = false;
+    }
+
+    public void struck(Ball b) {
+        struck = b.ordinal();
+    }
+
+    public void pocketed(Ball b) {
+        pocketed |= 1 << b.ordinal();
+    }
+
+    public void collided(Ball b1, Ball b2) {
+        if (b1.isWhite() || b2.isWhite()) {
+            whiteTouched = true;
+        }
+    }
+
+    public boolean isBallStruck() {
+        return struck != NONE;
+    }
+
+    // a regular ball struck by the cue
+    public boolean isDirectHit() {
+        return struck != NONE && struck != Ball.WHITE.ordinal();
+    }
+
+    public boolean isPocketed(Ball b) {
+        return (pocketed & (1 << b.ordinal())) != 0;
+    }
+
+    public boolean isWhitePocketed() {
+        return (pocketed & WHITE_BIT) != 0;
+    }
+
+    public int getRegularPocketedCount() {
+        return Integer.bitCount(pocketed & ~WHITE_BIT);
+    }
+
+    public boolean isWhiteTouched() {
+        return whiteTouched;
+    }
+
+    // all of it in an int, e.g. for a slot of a Snapshot
+    public int pack() {
+        return pocketed | (whiteTouched ? TOUCHED_BIT : 0) | (struck + 1) << STRUCK_SHIFT;
+    }
+
+    public void unpack(int packed) {
+        pocketed = packed & POCKETED_BITS;
+        whiteTouched = (packed & TOUCHED_BIT) != 0;
+        struck = (packed >>> STRUCK_SHIFT) - 1;
+    }
+}
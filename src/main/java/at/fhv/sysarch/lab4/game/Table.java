@@ -152,8 +152,8 @@ public class Table {
         // Corner pockets have a width of 0.125 - 0.135 m front and 0.105 to 115 m at the back. 
         // center pockets have a width of 0.135 - 0.145 m front and 0.110 to 120 m at the back. 
         // For sake of simplicity we assume a round hole and all pockets same diameter
-        private final static double POCKET_DIAMETER = 0.135;
-        private final static double POCKET_RADIUS = POCKET_DIAMETER / 2.0;
+        public final static double POCKET_DIAMETER = 0.135;
+        public final static double POCKET_RADIUS = POCKET_DIAMETER / 2.0;
 
         private final static double CUSHION_DENSITY = 0.1;
         private final static double CUSHION_FRICTION = 0; //0.14;
@@ -0,0 +1,73 @@
+package at.fhv.sysarch.lab4.game;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.physics.Snapshot;
+
+// The predicted outcome of a shot, see TrajectoryPreview: the path of the
+// struck ball, usually the white one, the first ball it hits and the path of
+// that ball. Paths are x and y in world coordinates.
+public class Trajectory {
+    private final Snapshot table;
+    private final Ball struckBall;
+    private final double[] struckX;
+    private final double[] struckY;
+    private final Optional<Ball> hitBall;
+    private final double[] hitX;
+    private final double[] hitY;
+    private final boolean hitBallPocketed;
+
+    Trajectory(Snapshot table, Ball struckBall, double[] struckX, double[] struckY,
+               Optional<Ball> hitBall, double[] hitX, double[] hitY, boolean hitBallPocketed) {
+        this.table = table;
+        this.struckBall = struckBall;
+        this.struckX = struckX;
+        this.struckY = struckY;
+        this.hitBall = hitBall;
+        this.hitX = hitX;
+        this.hitY = hitY;
+        this.hitBallPocketed = hitBallPocketed;
+    }
+
+    // the table the shot was predicted on
+    Snapshot getTable() {
+        return table;
+    }
+
+    public Ball getStruckBall() {
+        return struckBall;
+    }
+
+    public int getStruckPoints() {
+        return struckX.length;
+    }
+
+    public double getStruckX(int i) {
+        return struckX[i];
+    }
+
+    public double getStruckY(int i) {
+        return struckY[i];
+    }
+
+    public Optional<Ball> getHitBall() {
+        return hitBall;
+    }
+
+    // the path of the hit ball starts where it was hit
+    public int getHitPoints() {
+        return hitX.length;
+    }
+
+    public double getHitX(int i) {
+        return hitX[i];
+    }
+
+    public double getHitY(int i) {
+        return hitY[i];
+    }
+
+    public boolean isHitBallPocketed() {
+        return hitBallPocketed;
+    }
+}
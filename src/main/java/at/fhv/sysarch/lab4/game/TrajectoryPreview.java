@@ -0,0 +1,284 @@
+package at.fhv.sysarch.lab4.game;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import at.fhv.sysarch.lab4.physics.AnalyticPhysics;
+import at.fhv.sysarch.lab4.physics.BallsCollisionListener;
+import at.fhv.sysarch.lab4.physics.ObjectsRestListener;
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+import static at.fhv.sysarch.lab4.rendering.Renderer.SCALE;
+
+// Predicts where a shot goes while the cue is aimed. The shot is played on
+// an AnalyticPhysics on a thread of its own, the FX thread only hands over
+// the latest aim and picks up the latest result, it never waits for one.
+//
+// Mouse moves come in much faster than shots can be simulated: only the
+// newest aim is kept, a simulation still running for an older one is
+// abandoned, and aims which differ by less than a quarter of a degree (or a
+// millimeter of cue) are taken as the same shot and answered from a cache.
+public class TrajectoryPreview implements AutoCloseable, BallsCollisionListener, ObjectsRestListener {
+    private final static double STEP = 1.0 / 240;
+    // paths end here, even if the balls still roll
+    private final static double MAX_TIME = 4.0;
+    // a new point of a path once the ball moved this far
+    private final static double POINT_DISTANCE = 0.005;
+
+    private final static double ANGLE_BUCKET = Math.toRadians(0.25);
+    private final static double LENGTH_BUCKET = 0.001;
+    private final static int CACHE_SIZE = 64;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "trajectory preview");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // the newest aim not picked up by the preview thread yet
+    private final AtomicReference<Aim> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile Trajectory latest;
+
+    // only used by the FX thread
+    private Snapshot aimedTable;
+    private long aimedKey;
+
+    // only used by the preview thread
+    private final AnalyticPhysics physics = new AnalyticPhysics();
+    private final Map<Long, Trajectory> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Trajectory> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private Snapshot cachedTable;
+    private Ball collisionBall;
+    private Ball firstHit;
+    private boolean resting;
+    private final PathBuilder struckPath = new PathBuilder();
+    private final PathBuilder hitPath = new PathBuilder();
+
+    public TrajectoryPreview() {
+        physics.getEvents().addBallsCollisionListener(this);
+        physics.getEvents().addObjectsRestListener(this);
+    }
+
+    // the cue aimed on the given table, with the ray and force of Cue
+    public void aim(Snapshot table, Ray ray, Vector2 force) {
+        long key = key(ray, force);
+
+        if (table == aimedTable && key == aimedKey) {
+            return;
+        }
+
+        aimedTable = table;
+        aimedKey = key;
+
+        pending.set(new Aim(table, key, ray, force));
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::predictPending);
+        }
+    }
+
+    // the cue was put away
+    public void clear() {
+        aimedTable = null;
+        pending.set(null);
+    }
+
+    // the newest prediction for the table aimed at, it may still be for an
+    // older aim while the current one is simulated
+    public Optional<Trajectory> getLatest() {
+        Trajectory t = latest;
+
+        if (t == null || t.getTable() != aimedTable) {
+            return Optional.empty();
+        }
+
+        return Optional.of(t);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void predictPending() {
+        while (true) {
+            Aim aim = pending.getAndSet(null);
+
+            if (aim == null) {
+                scheduled.set(false);
+
+                // an aim set after the last check but before scheduled was cleared
+                if (pending.get() == null || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            if (aim.table != cachedTable) {
+                cache.clear();
+                cachedTable = aim.table;
+            }
+
+            Trajectory t = cache.get(aim.key);
+            if (t == null) {
+                t = this.predict(aim);
+            }
+
+            // null if a newer aim came in while predicting
+            if (t != null) {
+                cache.put(aim.key, t);
+                latest = t;
+            }
+        }
+    }
+
+    private Trajectory predict(Aim aim) {
+        physics.restore(aim.table);
+
+        Optional<Ball> struck = physics.strike(aim.ray, aim.force.multiply(SCALE));
+        if (struck.isEmpty()) {
+            return new Trajectory(aim.table, Ball.WHITE, new double[0], new double[0],
+                    Optional.empty(), new double[0], new double[0], false);
+        }
+
+        Ball ball = struck.get();
+        collisionBall = ball;
+        firstHit = null;
+        resting = false;
+        struckPath.reset(physics.getX(ball), physics.getY(ball));
+        hitPath.reset(0, 0);
+
+        for (double time = 0; time < MAX_TIME; time += STEP) {
+            // a newer aim replaces this one
+            if (pending.get() != null) {
+                return null;
+            }
+
+            boolean hitBefore = firstHit != null;
+            physics.step(STEP);
+
+            if (firstHit != null && !hitBefore) {
+                hitPath.reset(physics.getX(firstHit), physics.getY(firstHit));
+            }
+
+            if (physics.isOnTable(ball)) {
+                struckPath.add(physics.getX(ball), physics.getY(ball));
+            }
+            if (firstHit != null && physics.isOnTable(firstHit)) {
+                hitPath.add(physics.getX(firstHit), physics.getY(firstHit));
+            }
+
+            boolean struckDone = !physics.isOnTable(ball) || firstHit != null;
+            boolean hitDone = firstHit == null || !physics.isOnTable(firstHit);
+
+            // the struck ball is only followed to the first ball it hits, the
+            // hit ball until it drops or nothing moves anymore
+            if (struckDone && hitDone || resting) {
+                break;
+            }
+        }
+
+        return new Trajectory(aim.table, ball, struckPath.getX(), struckPath.getY(),
+                Optional.ofNullable(firstHit), hitPath.getX(), hitPath.getY(),
+                firstHit != null && !physics.isOnTable(firstHit));
+    }
+
+    @Override
+    public void onBallsCollide(Ball b1, Ball b2) {
+        if (firstHit != null) {
+            return;
+        }
+
+        if (b1 == collisionBall) {
+            firstHit = b2;
+        } else if (b2 == collisionBall) {
+            firstHit = b1;
+        }
+    }
+
+    @Override
+    public void onEndAllObjectsRest() {
+    }
+
+    @Override
+    public void onStartAllObjectsRest() {
+        resting = true;
+    }
+
+    // aims which are the same shot for the preview get the same key: the
+    // direction by a quarter degree, the length of the cue and the start by a millimeter
+    private static long key(Ray ray, Vector2 force) {
+        long angle = Math.round(Math.atan2(force.y, force.x) / ANGLE_BUCKET) & 0xFFFF;
+        long length = Math.round(force.getMagnitude() / LENGTH_BUCKET) & 0xFFFF;
+        long x = Math.round(ray.getStart().x / LENGTH_BUCKET) & 0xFFFF;
+        long y = Math.round(ray.getStart().y / LENGTH_BUCKET) & 0xFFFF;
+
+        return angle << 48 | length << 32 | x << 16 | y;
+    }
+
+    private static class Aim {
+        private final Snapshot table;
+        private final long key;
+        private final Ray ray;
+        private final Vector2 force;
+
+        private Aim(Snapshot table, long key, Ray ray, Vector2 force) {
+            this.table = table;
+            this.key = key;
+            this.ray = ray;
+            this.force = force;
+        }
+    }
+
+    // a path which only takes a point once the ball moved far enough
+    private static class PathBuilder {
+        private double[] x = new double[64];
+        private double[] y = new double[64];
+        private int size;
+
+        void reset(double startX, double startY) {
+            size = 0;
+            this.append(startX, startY);
+        }
+
+        void add(double px, double py) {
+            double dx = px - x[size - 1];
+            double dy = py - y[size - 1];
+
+            if (dx * dx + dy * dy >= POINT_DISTANCE * POINT_DISTANCE) {
+                this.append(px, py);
+            }
+        }
+
+        double[] getX() {
+            return Arrays.copyOf(x, size);
+        }
+
+        double[] getY() {
+            return Arrays.copyOf(y, size);
+        }
+
+        private void append(double px, double py) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+            }
+
+            x[size] = px;
+            y[size] = py;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package at.fhv.sysarch.lab4.metrics;
+
+import java.util.Arrays;
+
+// Counts durations in nanoseconds in a fixed number of buckets: 16 linear
+// buckets for every power of two, so percentiles are exact to about 6% and
+// the memory used doesn't grow with the number of recorded values.
+public class Histogram {
+    private final static int SUB_BITS = 4;
+    private final static int SUB_COUNT = 1 << SUB_BITS;
+    // larger values, about 18 minutes, end up in the last bucket
+    private final static int MAX_EXPONENT = 40;
+
+    private final long[] counts = new long[(MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT];
+    private long count;
+    private long max;
+
+    public synchronized void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, (1L << (MAX_EXPONENT + 1)) - 1));
+
+        counts[index(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    // the value p percent of the recorded values are smaller or equal to,
+    // rounded up to the end of its bucket
+    public synchronized long getPercentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * p / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_COUNT;
+
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,92 @@
+package at.fhv.sysarch.lab4.metrics;
+
+import java.lang.management.ManagementFactory;
+
+// Times the phases of starting the game and prints them to the console,
+// relative to the start of the JVM and to the previous phase. Besides the
+// explicit marks it watches the frame times passed to onFrame: the frame
+// time counts as steady from the first of STEADY_FRAMES frames in a row
+// which all took at most STEADY_INTERVAL. The frames have to be drawn one
+// after the other until then, even if nothing changes; onDone is called
+// once the steady frame time was found or given up on.
+public class StartupTimer {
+    private final static int STEADY_FRAMES = 60;
+    // 1.5 frames at 60 Hz, a frame that took longer was missed
+    private final static double STEADY_INTERVAL = 0.025;
+    // about 30 seconds at 60 Hz
+    private final static int MAX_FRAMES = 1800;
+
+    // System.nanoTime() at the start of the JVM
+    private final long jvmStart;
+    private long last;
+
+    private int frames;
+    private int slowFrames;
+    private int steadyRun;
+    private long steadyRunStart;
+    private boolean done;
+    private Runnable onDone = () -> { };
+
+    public StartupTimer() {
+        long now = System.nanoTime();
+        this.jvmStart = now - ManagementFactory.getRuntimeMXBean().getUptime() * 1000_000L;
+        this.last = jvmStart;
+    }
+
+    public void mark(String phase) {
+        this.mark(phase, System.nanoTime());
+    }
+
+    private synchronized void mark(String phase, long now) {
+        System.out.printf("startup: %-20s %7.1f ms (+%.1f ms)%n", phase, millis(now - jvmStart), millis(now - last));
+        this.last = Math.max(last, now);
+    }
+
+    // called on the thread which calls onFrame
+    public void setOnDone(Runnable onDone) {
+        this.onDone = onDone;
+    }
+
+    // dt is the time since the previous drawn frame in seconds, as passed
+    // to a FrameListener
+    public void onFrame(double dt) {
+        if (done) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        frames++;
+
+        // the first frame has no previous one to take its time from
+        if (frames < 2) {
+            return;
+        }
+
+        if (dt > STEADY_INTERVAL) {
+            slowFrames++;
+            steadyRun = 0;
+        } else if (steadyRun++ == 0) {
+            steadyRunStart = now;
+        }
+
+        if (steadyRun == STEADY_FRAMES) {
+            this.mark("steady frame time", steadyRunStart);
+            System.out.printf("startup: %d frames until steady, %d of them slower than %.0f ms%n",
+                    frames - STEADY_FRAMES, slowFrames, STEADY_INTERVAL * 1000);
+            this.finish();
+        } else if (frames == MAX_FRAMES) {
+            System.out.printf("startup: no steady frame time within %d frames, %d of them slower than %.0f ms%n",
+                    frames, slowFrames, STEADY_INTERVAL * 1000);
+            this.finish();
+        }
+    }
+
+    private void finish() {
+        this.done = true;
+        onDone.run();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000_000.0;
+    }
+}
@@ -0,0 +1,49 @@
+package at.fhv.sysarch.lab4.physics;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+
+// Picks step sizes by the speed of the fastest ball: no ball may move further
+// than MAX_TRAVEL within one step, or it could pass through a cushion or
+// another ball between two steps. Fast balls need steps shorter than the
+// regular one, slow balls can take longer ones.
+//
+// A collision exchanges speed between balls, so a ball can come out faster
+// than the fastest ball went in, by up to a factor of sqrt(2) for two balls of
+// the same mass. Half of the thinner of ball and cushion leaves room for that.
+public class AdaptiveStepper {
+    public final static double MAX_TRAVEL = 0.5 * Math.min(Ball.Constants.RADIUS, Table.Constants.CUSHION_SIZE);
+    // a shot of any strength is split into at most this many steps
+    public final static int MAX_SUBSTEPS = 64;
+
+    private final double minStep;
+    private final double maxStep;
+
+    public AdaptiveStepper(double minStep, double maxStep) {
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+    }
+
+    // with steps of up to four times the regular one, which is what the game
+    // took per frame at 60 fps before it stepped at a fixed rate
+    public static AdaptiveStepper forStep(double step) {
+        return new AdaptiveStepper(step, step * 4);
+    }
+
+    // the steps dt has to be split into for the given speed
+    public static int substeps(double maxSpeed, double dt) {
+        int n = (int) Math.ceil(maxSpeed * dt / MAX_TRAVEL);
+
+        return Math.max(1, Math.min(MAX_SUBSTEPS, n));
+    }
+
+    // the next step for a simulation which may choose its steps: as long as
+    // possible within min and max step, a faster ball is split by the engine
+    public double next(double maxSpeed) {
+        if (maxSpeed * maxStep <= MAX_TRAVEL) {
+            return maxStep;
+        }
+
+        return Math.max(minStep, MAX_TRAVEL / maxSpeed);
+    }
+}
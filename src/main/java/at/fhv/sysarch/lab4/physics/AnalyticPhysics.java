@@ -0,0 +1,490 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+// Simulates the balls without a rigid body solver. All balls are slowed down
+// by the same exponential damping as the dyn4j bodies, v(t) = v * e^(-ct), so
+// between two events every ball - and the distance between any two balls -
+// moves linearly in s(t) = (1 - e^(-ct)) / c. The next ball-ball, ball-cushion
+// and ball-pocket contact and the next ball coming to rest are solved for
+// directly and the simulation jumps from one event to the next.
+//
+// The cushions are the straight inner faces of the cushions of Table, the
+// jaws at their ends are corners a ball bounces off. A ball is pocketed as in
+// Physics once its center is within a ball radius of the pocket center, or
+// when it leaves the table between the jaws. Balls don't spin in Physics, so
+// the friction between balls is ignored.
+public class AnalyticPhysics implements PhysicsEngine {
+    // any number of events are handled within one step, longer steps only
+    // delay their delivery through the event bus
+    public final static double DEFAULT_STEP = 0.1;
+
+    private final static double RADIUS = Ball.Constants.RADIUS;
+    private final static double DAMPING = Ball.Constants.LINEAR_DAMPING;
+    // dyn4j uses the larger restitution of two fixtures, the cushions have none
+    private final static double RESTITUTION = Ball.Constants.RESTITUTION;
+    // dyn4j derives the mass of the circle from its area
+    private final static double MASS = Ball.Constants.DENSITY * Math.PI * RADIUS * RADIUS;
+    // same as the raycast in Physics.strike
+    private final static double STRIKE_REACH = 0.1;
+    // balls closing in slower than this are taken as moving apart, otherwise
+    // rounding errors let touching balls collide over and over again
+    private final static double MIN_APPROACH = 1e-12;
+    // bail out of a step if balls got stuck in a cluster of endless collisions
+    private final static int MAX_EVENTS_PER_STEP = 10_000;
+
+    // inner faces of the cushions and where they end at the jaws
+    private final static double FACE_X = Table.Constants.WIDTH * 0.5 - Table.Constants.CUSHION_SIZE * 0.5;
+    private final static double FACE_Y = Table.Constants.HEIGHT * 0.5 - Table.Constants.CUSHION_SIZE * 0.5;
+    private final static double SIDE_END = Table.Constants.HEIGHT * 0.5 - Table.Constants.POCKET_DIAMETER;
+    private final static double LONG_INNER_END = Table.Constants.POCKET_RADIUS * 1.1;
+    private final static double LONG_OUTER_END = Table.Constants.WIDTH * 0.5 - Table.Constants.POCKET_DIAMETER;
+
+    // cushions as x1, y1, x2, y2 and the normal pointing onto the table
+    private final static double[][] CUSHIONS = {
+            {FACE_X, -SIDE_END, FACE_X, SIDE_END, -1, 0},
+            {-FACE_X, -SIDE_END, -FACE_X, SIDE_END, 1, 0},
+            {-LONG_OUTER_END, -FACE_Y, -LONG_INNER_END, -FACE_Y, 0, 1},
+            {LONG_INNER_END, -FACE_Y, LONG_OUTER_END, -FACE_Y, 0, 1},
+            {-LONG_OUTER_END, FACE_Y, -LONG_INNER_END, FACE_Y, 0, -1},
+            {LONG_INNER_END, FACE_Y, LONG_OUTER_END, FACE_Y, 0, -1}
+    };
+
+    private final static int NO_EVENT = 0;
+    private final static int REST_EVENT = 1;
+    private final static int BALL_EVENT = 2;
+    private final static int CUSHION_EVENT = 3;
+    private final static int CORNER_EVENT = 4;
+    private final static int POCKET_EVENT = 5;
+
+    private final Table table = new Table();
+    private final Pockets pockets = new Pockets(table);
+    private final Ball[] allBalls = Ball.values();
+
+    private final double[] x = new double[allBalls.length];
+    private final double[] y = new double[allBalls.length];
+    private final double[] vx = new double[allBalls.length];
+    private final double[] vy = new double[allBalls.length];
+    private final boolean[] onTable = new boolean[allBalls.length];
+
+    private double restSpeed = MotionTracker.DEFAULT_REST_SPEED;
+
+    // the next event, found by findNextEvent
+    private int eventType;
+    private double eventS;
+    private int eventBall;
+    private int eventOther;
+    private double eventNormalX;
+    private double eventNormalY;
+
+    private final PhysicsEventBus events = new PhysicsEventBus();
+    private Optional<SnapshotListener> snapshotListener = Optional.empty();
+    private boolean objectsMoving = false;
+
+    public void setRestSpeed(double restSpeed) {
+        this.restSpeed = restSpeed;
+    }
+
+    @Override
+    public Table getTable() {
+        return table;
+    }
+
+    @Override
+    public void step(double dt) {
+        if (isAnyBallMoving() && !objectsMoving) {
+            events.objectsMoving();
+            objectsMoving = true;
+        }
+
+        double remaining = dt;
+        int handled = 0;
+
+        while (remaining > 0 && isAnyBallMoving() && handled < MAX_EVENTS_PER_STEP) {
+            this.findNextEvent(toS(remaining));
+
+            if (eventType == NO_EVENT) {
+                this.advance(toS(remaining));
+                break;
+            }
+
+            this.advance(eventS);
+            remaining -= toTime(eventS);
+            handled++;
+
+            this.handleEvent();
+        }
+
+        if (!isAnyBallMoving() && objectsMoving) {
+            events.objectsResting();
+            objectsMoving = false;
+        }
+
+        events.flush();
+    }
+
+    @Override
+    public Optional<Ball> strike(Ray ray, Vector2 force) {
+        Vector2 start = ray.getStart();
+        Vector2 direction = ray.getDirectionVector();
+        int hit = -1;
+        double nearest = STRIKE_REACH;
+
+        for (int i = 0; i < allBalls.length; i++) {
+            if (!onTable[i]) {
+                continue;
+            }
+
+            // distance along the ray to the circle of the ball
+            double mx = start.x - x[i];
+            double my = start.y - y[i];
+            double b = mx * direction.x + my * direction.y;
+            double c = mx * mx + my * my - RADIUS * RADIUS;
+            double disc = b * b - c;
+
+            if (disc < 0 || (c > 0 && b > 0)) {
+                continue;
+            }
+
+            double distance = Math.max(0, -b - Math.sqrt(disc));
+
+            if (distance <= nearest) {
+                nearest = distance;
+                hit = i;
+            }
+        }
+
+        if (hit < 0) {
+            return Optional.empty();
+        }
+
+        vx[hit] += force.x * Physics.STRIKE_DURATION / MASS;
+        vy[hit] += force.y * Physics.STRIKE_DURATION / MASS;
+
+        return Optional.of(allBalls[hit]);
+    }
+
+    @Override
+    public void placeBall(Ball b, double x, double y) {
+        int i = b.ordinal();
+
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = 0;
+        this.vy[i] = 0;
+        this.onTable[i] = true;
+
+        pockets.reset(b, x, y);
+    }
+
+    @Override
+    public void removeBall(Ball b) {
+        int i = b.ordinal();
+
+        this.vx[i] = 0;
+        this.vy[i] = 0;
+        this.onTable[i] = false;
+    }
+
+    @Override
+    public boolean isOnTable(Ball b) {
+        return onTable[b.ordinal()];
+    }
+
+    @Override
+    public double getX(Ball b) {
+        return x[b.ordinal()];
+    }
+
+    @Override
+    public double getY(Ball b) {
+        return y[b.ordinal()];
+    }
+
+    @Override
+    public double getMaxSpeed() {
+        double max = 0;
+
+        for (int i = 0; i < allBalls.length; i++) {
+            if (onTable[i]) {
+                max = Math.max(max, vx[i] * vx[i] + vy[i] * vy[i]);
+            }
+        }
+
+        return Math.sqrt(max);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return this.snapshot(new Snapshot());
+    }
+
+    @Override
+    public Snapshot snapshot(Snapshot s) {
+        for (Ball b : allBalls) {
+            int i = b.ordinal();
+            s.setBall(b, x[i], y[i], vx[i], vy[i], onTable[i]);
+        }
+
+        snapshotListener.ifPresent(l -> l.onSnapshot(s));
+
+        return s;
+    }
+
+    @Override
+    public void restore(Snapshot s) {
+        for (Ball b : allBalls) {
+            int i = b.ordinal();
+
+            x[i] = s.getX(b);
+            y[i] = s.getY(b);
+            vx[i] = s.getVelocityX(b);
+            vy[i] = s.getVelocityY(b);
+            onTable[i] = s.isOnTable(b);
+
+            pockets.reset(b, x[i], y[i]);
+        }
+
+        // no rest change is reported for the restored state itself
+        objectsMoving = isAnyBallMoving();
+
+        snapshotListener.ifPresent(l -> l.onRestore(s));
+    }
+
+    private boolean isMoving(int i) {
+        return onTable[i] && (vx[i] != 0 || vy[i] != 0);
+    }
+
+    private boolean isAnyBallMoving() {
+        for (int i = 0; i < allBalls.length; i++) {
+            if (isMoving(i)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static double toS(double time) {
+        return (1 - Math.exp(-DAMPING * time)) / DAMPING;
+    }
+
+    private static double toTime(double s) {
+        return -Math.log(1 - DAMPING * s) / DAMPING;
+    }
+
+    // moves all balls ahead by s, the velocities decay by e^(-ct) = 1 - cs
+    private void advance(double s) {
+        double decay = 1 - DAMPING * s;
+
+        for (int i = 0; i < allBalls.length; i++) {
+            if (isMoving(i)) {
+                x[i] += vx[i] * s;
+                y[i] += vy[i] * s;
+                vx[i] *= decay;
+                vy[i] *= decay;
+            }
+        }
+    }
+
+    private void findNextEvent(double maxS) {
+        eventType = NO_EVENT;
+        eventS = maxS;
+
+        for (int i = 0; i < allBalls.length; i++) {
+            if (!isMoving(i)) {
+                continue;
+            }
+
+            double speed = Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+            // the speed drops below the rest speed when e^(-ct) = restSpeed / speed
+            this.offer(REST_EVENT, Math.max(0, 1 - restSpeed / speed) / DAMPING, i, -1, 0, 0);
+
+            this.findBallEvents(i);
+            this.findCushionEvents(i);
+
+            // a ball rolling about in a pocket it already dropped into
+            if (!pockets.isPocketed(allBalls[i])) {
+                this.findPocketEvents(i);
+            }
+        }
+    }
+
+    private void findBallEvents(int i) {
+        for (int j = 0; j < allBalls.length; j++) {
+            // pairs of moving balls are only looked at once
+            if (j == i || !onTable[j] || (isMoving(j) && j < i)) {
+                continue;
+            }
+
+            double s = contact(x[j] - x[i], y[j] - y[i], vx[j] - vx[i], vy[j] - vy[i], 2 * RADIUS);
+
+            if (s >= 0) {
+                this.offer(BALL_EVENT, s, i, j, 0, 0);
+            }
+        }
+    }
+
+    private void findCushionEvents(int i) {
+        for (double[] c : CUSHIONS) {
+            double nx = c[4];
+            double ny = c[5];
+            double vn = vx[i] * nx + vy[i] * ny;
+            double distance = (x[i] - c[0]) * nx + (y[i] - c[1]) * ny;
+
+            // moving away, or already behind the face in front of a pocket
+            if (vn >= 0 || distance < 0) {
+                continue;
+            }
+
+            double s = Math.max(0, (RADIUS - distance) / vn);
+            // the faces are axis aligned, check the hit point is within the face
+            double hx = x[i] + vx[i] * s;
+            double hy = y[i] + vy[i] * s;
+
+            if (hx >= Math.min(c[0], c[2]) && hx <= Math.max(c[0], c[2])
+                    && hy >= Math.min(c[1], c[3]) && hy <= Math.max(c[1], c[3])) {
+                this.offer(CUSHION_EVENT, s, i, -1, nx, ny);
+            }
+
+            // the ends of the face, the jaws of the pockets
+            for (int end = 0; end <= 2; end += 2) {
+                double sc = contact(c[end] - x[i], c[end + 1] - y[i], -vx[i], -vy[i], RADIUS);
+
+                if (sc >= 0 && sc < eventS) {
+                    double ex = x[i] + vx[i] * sc - c[end];
+                    double ey = y[i] + vy[i] * sc - c[end + 1];
+                    double length = Math.sqrt(ex * ex + ey * ey);
+
+                    this.offer(CORNER_EVENT, sc, i, -1, ex / length, ey / length);
+                }
+            }
+        }
+    }
+
+    private void findPocketEvents(int i) {
+        for (int p = 0; p < pockets.getCount(); p++) {
+            double s = contact(pockets.getX(p) - x[i], pockets.getY(p) - y[i], -vx[i], -vy[i], RADIUS);
+
+            if (s >= 0) {
+                this.offer(POCKET_EVENT, s, i, -1, 0, 0);
+            }
+        }
+
+        // escaped between the jaws without getting close to a pocket center
+        double halfWidth = Table.Constants.WIDTH * 0.5;
+        double halfHeight = Table.Constants.HEIGHT * 0.5;
+
+        if (vx[i] != 0) {
+            this.offer(POCKET_EVENT, Math.max(0, (Math.signum(vx[i]) * halfWidth - x[i]) / vx[i]), i, -1, 0, 0);
+        }
+
+        if (vy[i] != 0) {
+            this.offer(POCKET_EVENT, Math.max(0, (Math.signum(vy[i]) * halfHeight - y[i]) / vy[i]), i, -1, 0, 0);
+        }
+    }
+
+    // s at which a point at dx/dy moving with wx/wy relative to a ball reaches
+    // the given distance to its center, or -1 if it doesn't approach that close
+    private static double contact(double dx, double dy, double wx, double wy, double distance) {
+        double b = dx * wx + dy * wy;
+
+        // moving apart
+        if (b >= -MIN_APPROACH) {
+            return -1;
+        }
+
+        double a = wx * wx + wy * wy;
+        double c = dx * dx + dy * dy - distance * distance;
+        double disc = b * b - a * c;
+
+        if (disc < 0) {
+            return -1;
+        }
+
+        // overlapping already counts as touching now
+        return Math.max(0, (-b - Math.sqrt(disc)) / a);
+    }
+
+    private void offer(int type, double s, int ball, int other, double nx, double ny) {
+        if (s < eventS) {
+            eventType = type;
+            eventS = s;
+            eventBall = ball;
+            eventOther = other;
+            eventNormalX = nx;
+            eventNormalY = ny;
+        }
+    }
+
+    private void handleEvent() {
+        int i = eventBall;
+
+        switch (eventType) {
+            case REST_EVENT:
+                vx[i] = 0;
+                vy[i] = 0;
+                break;
+
+            case BALL_EVENT:
+                this.collide(i, eventOther);
+                events.ballsCollided(allBalls[i], allBalls[eventOther]);
+                break;
+
+            case CUSHION_EVENT:
+            case CORNER_EVENT:
+                this.bounce(i, eventNormalX, eventNormalY);
+                break;
+
+            case POCKET_EVENT:
+                // the ball drops into the pocket and stops there
+                vx[i] = 0;
+                vy[i] = 0;
+                pockets.markPocketed(allBalls[i]);
+                events.ballPocketed(allBalls[i]);
+                break;
+        }
+    }
+
+    // both balls have the same mass, they exchange the normal components of
+    // their velocities less what the restitution takes
+    private void collide(int i, int j) {
+        double nx = x[j] - x[i];
+        double ny = y[j] - y[i];
+        double length = Math.sqrt(nx * nx + ny * ny);
+        nx /= length;
+        ny /= length;
+
+        double approach = (vx[i] - vx[j]) * nx + (vy[i] - vy[j]) * ny;
+        double impulse = (1 + RESTITUTION) * 0.5 * approach;
+
+        vx[i] -= impulse * nx;
+        vy[i] -= impulse * ny;
+        vx[j] += impulse * nx;
+        vy[j] += impulse * ny;
+    }
+
+    private void bounce(int i, double nx, double ny) {
+        double vn = vx[i] * nx + vy[i] * ny;
+
+        if (vn < 0) {
+            vx[i] -= (1 + RESTITUTION) * vn * nx;
+            vy[i] -= (1 + RESTITUTION) * vn * ny;
+        }
+    }
+
+    @Override
+    public PhysicsEventBus getEvents() {
+        return events;
+    }
+
+    @Override
+    public void setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = Optional.of(snapshotListener);
+    }
+}
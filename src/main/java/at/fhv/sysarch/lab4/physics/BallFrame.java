@@ -0,0 +1,53 @@
+package at.fhv.sysarch.lab4.physics;
+
+import at.fhv.sysarch.lab4.game.Ball;
+
+// The positions of all balls after one physics step, as handed from the
+// physics thread to the renderer through BallFrames. A frame is only written
+// while the writer owns it, once published it doesn't change anymore.
+public class BallFrame {
+    private final double[] x = new double[Ball.values().length];
+    private final double[] y = new double[Ball.values().length];
+    private final boolean[] onTable = new boolean[Ball.values().length];
+    private long step;
+
+    void capture(PhysicsEngine physics, long step) {
+        for (Ball b : Ball.values()) {
+            int i = b.ordinal();
+
+            x[i] = physics.getX(b);
+            y[i] = physics.getY(b);
+            onTable[i] = physics.isOnTable(b);
+        }
+
+        this.step = step;
+    }
+
+    // for writers other than the PhysicsLoop, e.g. a decoded stream
+    public void set(Ball b, double x, double y, boolean onTable) {
+        this.x[b.ordinal()] = x;
+        this.y[b.ordinal()] = y;
+        this.onTable[b.ordinal()] = onTable;
+    }
+
+    public void setStep(long step) {
+        this.step = step;
+    }
+
+    public double getX(Ball b) {
+        return x[b.ordinal()];
+    }
+
+    public double getY(Ball b) {
+        return y[b.ordinal()];
+    }
+
+    public boolean isOnTable(Ball b) {
+        return onTable[b.ordinal()];
+    }
+
+    // number of the physics step the frame was taken after
+    public long getStep() {
+        return step;
+    }
+}
@@ -0,0 +1,40 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock free triple buffer of BallFrames between one writer, e.g. the physics
+// thread after every step, and the renderer, which only wants the latest one.
+// The writer owns the back frame, the reader the front frame and the third
+// one is swapped between them: neither side ever waits for the other and a
+// frame is never written while it is read.
+public class BallFrames {
+    // set in the middle index if the writer published a frame since the reader last took one
+    private final static int FRESH = 4;
+    private final static int INDEX = 3;
+
+    private final BallFrame[] frames = { new BallFrame(), new BallFrame(), new BallFrame() };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // only used by the writer
+    private int back = 0;
+    // only used by the reader
+    private int front = 2;
+
+    // the frame the writer fills next
+    public BallFrame getBack() {
+        return frames[back];
+    }
+
+    // hands the back frame to the reader, the writer continues with the middle one
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    // the last published frame, it stays valid until latest is called again
+    public BallFrame latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+
+        return frames[front];
+    }
+}
@@ -0,0 +1,17 @@
+package at.fhv.sysarch.lab4.physics;
+
+// the physics engines a match can be played on, e.g. to replay a recorded
+// match on the engine it was played with
+public enum EngineType {
+    DYN4J,
+    ANALYTIC;
+
+    public PhysicsEngine create() {
+        return this == ANALYTIC ? new AnalyticPhysics() : new Physics();
+    }
+
+    // as on the command line: "analytic" or anything else for dyn4j
+    public static EngineType of(String name) {
+        return "analytic".equals(name) ? ANALYTIC : DYN4J;
+    }
+}
@@ -0,0 +1,206 @@
+package at.fhv.sysarch.lab4.physics;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.BallSet;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.World;
+
+// Keeps track of the balls which are moving. A ball comes to rest as soon as
+// it is slower than the rest speed: it is stopped and its body put to sleep,
+// instead of waiting for the damping and the auto sleep of the world to stop it.
+//
+// Resting balls are only looked at again once something touches them, and
+// they only count as moving if they got faster than the wake speed. The gap
+// between both speeds keeps a ball from flickering between moving and resting.
+public class MotionTracker {
+    public final static double DEFAULT_REST_SPEED = 0.02;
+    public final static double DEFAULT_WAKE_SPEED = 0.04;
+
+    private final World world;
+    private final BallSet balls;
+
+    // moving balls, packed at the front of the array
+    private final Ball[] moving = new Ball[Ball.values().length];
+    private final int[] movingIndex = new int[Ball.values().length];
+    private int movingCount = 0;
+
+    // resting balls which were touched since the last step
+    private final Ball[] touched = new Ball[Ball.values().length];
+    private final boolean[] isTouched = new boolean[Ball.values().length];
+    private int touchedCount = 0;
+
+    private double restSpeed = DEFAULT_REST_SPEED;
+    private double wakeSpeed = DEFAULT_WAKE_SPEED;
+
+    private long steps = 0;
+    private long stepsSaved = 0;
+    // step at which the auto sleep of the world would have stopped the last ball
+    private long autoSleepStep = 0;
+
+    MotionTracker(World world, BallSet balls) {
+        this.world = world;
+        this.balls = balls;
+
+        for (Ball b : Ball.values()) {
+            movingIndex[b.ordinal()] = -1;
+        }
+    }
+
+    public void setRestSpeed(double restSpeed) {
+        this.restSpeed = restSpeed;
+    }
+
+    public void setWakeSpeed(double wakeSpeed) {
+        this.wakeSpeed = wakeSpeed;
+    }
+
+    public int getMovingBallCount() {
+        return movingCount;
+    }
+
+    public boolean isMoving(Ball b) {
+        return movingIndex[b.ordinal()] >= 0;
+    }
+
+    // of the moving balls and those touched since the last update, which
+    // may have been struck
+    public double getMaxSpeed() {
+        double max = 0;
+
+        for (int i = 0; i < movingCount; i++) {
+            max = Math.max(max, speedSquared(moving[i]));
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            max = Math.max(max, speedSquared(touched[i]));
+        }
+
+        return Math.sqrt(max);
+    }
+
+    // steps the tracker was updated in
+    public long getSteps() {
+        return steps;
+    }
+
+    // estimate of the steps which would have been simulated additionally
+    // until the world put all balls to sleep by itself
+    public long getStepsSaved() {
+        return stepsSaved;
+    }
+
+    public void resetCounters() {
+        steps = 0;
+        stepsSaved = 0;
+    }
+
+    // the ball was struck or touched, it is checked in the next update
+    void touch(Ball b) {
+        int i = b.ordinal();
+
+        if (movingIndex[i] < 0 && !isTouched[i]) {
+            isTouched[i] = true;
+            touched[touchedCount++] = b;
+        }
+    }
+
+    // called at the begin of every step, returns whether any ball is moving
+    boolean update(double step) {
+        steps++;
+
+        for (int i = 0; i < touchedCount; i++) {
+            Ball b = touched[i];
+            isTouched[b.ordinal()] = false;
+
+            if (speedSquared(b) > wakeSpeed * wakeSpeed) {
+                this.add(b);
+            } else {
+                this.rest(b, step);
+            }
+        }
+        touchedCount = 0;
+
+        // backwards, removing a ball moves the last one into its place
+        for (int i = movingCount - 1; i >= 0; i--) {
+            Ball b = moving[i];
+
+            if (speedSquared(b) < restSpeed * restSpeed) {
+                this.remove(b);
+                this.rest(b, step);
+            }
+        }
+
+        if (movingCount == 0 && autoSleepStep > steps) {
+            stepsSaved += autoSleepStep - steps;
+            autoSleepStep = 0;
+        }
+
+        return movingCount > 0;
+    }
+
+    // takes over the state of the balls after they were moved around, e.g.
+    // by Physics.restore: balls with a velocity move, all others rest
+    void reset() {
+        while (movingCount > 0) {
+            this.remove(moving[movingCount - 1]);
+        }
+
+        for (int i = 0; i < touchedCount; i++) {
+            isTouched[touched[i].ordinal()] = false;
+        }
+        touchedCount = 0;
+        autoSleepStep = 0;
+
+        for (Ball b : Ball.values()) {
+            Body body = balls.getBody(b);
+
+            if (world.containsBody(body) && !body.getLinearVelocity().isZero()) {
+                body.setAsleep(false);
+                this.add(b);
+            } else {
+                body.setAsleep(true);
+            }
+        }
+    }
+
+    private double speedSquared(Ball b) {
+        return balls.getBody(b).getLinearVelocity().getMagnitudeSquared();
+    }
+
+    private void add(Ball b) {
+        movingIndex[b.ordinal()] = movingCount;
+        moving[movingCount++] = b;
+    }
+
+    private void remove(Ball b) {
+        int i = movingIndex[b.ordinal()];
+        Ball last = moving[--movingCount];
+
+        moving[i] = last;
+        movingIndex[last.ordinal()] = i;
+        moving[movingCount] = null;
+        movingIndex[b.ordinal()] = -1;
+    }
+
+    private void rest(Ball b, double step) {
+        Body body = balls.getBody(b);
+        double speed = body.getLinearVelocity().getMagnitude();
+
+        if (speed > 0) {
+            // the velocity decays exponentially with the linear damping, after
+            // dropping below the sleep velocity the world waits the sleep time
+            Settings settings = world.getSettings();
+            double time = settings.getSleepTime();
+
+            if (speed > settings.getSleepLinearVelocity()) {
+                time += Math.log(speed / settings.getSleepLinearVelocity()) / body.getLinearDamping();
+            }
+
+            autoSleepStep = Math.max(autoSleepStep, steps + (long) Math.ceil(time / step));
+        }
+
+        body.setLinearVelocity(0, 0);
+        body.setAngularVelocity(0);
+        body.setAsleep(true);
+    }
+}
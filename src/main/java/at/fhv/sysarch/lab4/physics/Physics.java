@@ -1,7 +1,14 @@
 package at.fhv.sysarch.lab4.physics;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.BallSet;
+import at.fhv.sysarch.lab4.game.Table;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.RaycastResult;
 import org.dyn4j.dynamics.Step;
 import org.dyn4j.dynamics.StepListener;
 import org.dyn4j.dynamics.World;
@@ -9,44 +16,194 @@ import org.dyn4j.dynamics.contact.ContactListener;
 import org.dyn4j.dynamics.contact.ContactPoint;
 import org.dyn4j.dynamics.contact.PersistedContactPoint;
 import org.dyn4j.dynamics.contact.SolvedContactPoint;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
-public class Physics implements ContactListener, StepListener {
+public class Physics implements PhysicsEngine, ContactListener, StepListener {
+    // fixed simulation step, both the renderer and the simulator step with it
+    // so a shot results in the same outcome independent of the frame rate
+    public final static double DEFAULT_STEP = 1.0 / 240.0;
+    // the cue force used to be applied during a single 60 fps frame, applying
+    // it as impulse over that time keeps the shot strength independent of the step
+    final static double STRIKE_DURATION = 1.0 / 60.0;
 
     private final World world;
-    private BallPocketedListener ballPocketedListener;
-    private ObjectsRestListener objectsRestListener;
-    private BallsCollisionListener ballsCollisionListener;
+    private final BallSet balls;
+    private final Table table;
+    private final Pockets pockets;
+    private final MotionTracker motion;
+    private final PhysicsEventBus events = new PhysicsEventBus();
+    private Optional<SnapshotListener> snapshotListener = Optional.empty();
     private boolean objectsMoving = false;
 
 
     public Physics() {
+        this.balls = new BallSet();
         this.world = new World();
         this.world.setGravity(World.ZERO_GRAVITY);
         this.world.addListener(this);
+        this.motion = new MotionTracker(world, balls);
+
+        this.table = new Table();
+        this.world.addBody(table.getBody());
+        this.pockets = new Pockets(table);
     }
 
     public World getWorld() {
         return world;
     }
 
+    public BallSet getBalls() {
+        return balls;
+    }
+
+    public MotionTracker getMotionTracker() {
+        return motion;
+    }
+
     @Override
-    public void begin(Step step, World world) {
-        int movingBallCount = 0;
+    public Table getTable() {
+        return table;
+    }
+
+    // a step in which a ball would move further than AdaptiveStepper.MAX_TRAVEL
+    // is split, so even the hardest shot can't pass through a cushion
+    @Override
+    public void step(double dt) {
+        int substeps = AdaptiveStepper.substeps(motion.getMaxSpeed(), dt);
+
+        world.step(substeps, dt / substeps);
+        events.flush();
+    }
+
+    @Override
+    public void placeBall(Ball b, double x, double y) {
+        Body body = balls.getBody(b);
+
+        balls.setPosition(b, x, y);
+        body.setLinearVelocity(0, 0);
+        pockets.reset(b, x, y);
+
+        if (!world.containsBody(body)) {
+            world.addBody(body);
+        }
+    }
+
+    @Override
+    public void removeBall(Ball b) {
+        Body body = balls.getBody(b);
+
+        if (world.containsBody(body)) {
+            world.removeBody(body);
+        }
+    }
+
+    @Override
+    public boolean isOnTable(Ball b) {
+        return world.containsBody(balls.getBody(b));
+    }
 
-        for (Ball ball : Ball.values()) {
-            if (!ball.getBody().getLinearVelocity().isZero()){
+    @Override
+    public double getX(Ball b) {
+        return balls.getBody(b).getTransform().getTranslationX();
+    }
 
-                movingBallCount++;
+    @Override
+    public double getY(Ball b) {
+        return balls.getBody(b).getTransform().getTranslationY();
+    }
+
+    @Override
+    public double getMaxSpeed() {
+        return motion.getMaxSpeed();
+    }
+
+    @Override
+    public Optional<Ball> strike(Ray ray, Vector2 force) {
+        List<RaycastResult> results = new ArrayList<>();
+        boolean result = this.world.raycast(ray, 0.1, false, false, results);
+
+        if (result && results.get(0).getBody().getUserData() instanceof Ball) {
+            Body body = results.get(0).getBody();
+            body.setAsleep(false);
+            body.applyImpulse(force.multiply(STRIKE_DURATION));
+            motion.touch((Ball) body.getUserData());
+
+            return Optional.of((Ball) body.getUserData());
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return this.snapshot(new Snapshot());
+    }
+
+    @Override
+    public Snapshot snapshot(Snapshot s) {
+        for (Ball b : Ball.values()) {
+            Body body = balls.getBody(b);
+            Transform t = body.getTransform();
+            Vector2 v = body.getLinearVelocity();
+
+            s.setBall(b, t.getTranslationX(), t.getTranslationY(), v.x, v.y, world.containsBody(body));
+        }
+
+        snapshotListener.ifPresent(l -> l.onSnapshot(s));
+
+        return s;
+    }
+
+    // puts the balls back into the state of the snapshot, bodies are only
+    // moved and added to or removed from the world, never rebuilt
+    @Override
+    public void restore(Snapshot s) {
+        // removing the balls drops their cached contacts, which belong to the
+        // old state and would be solved in the next step otherwise. re-adding them
+        // in a fixed order makes the solver order, and with it the outcome of
+        // a shot, independent of the history of the world.
+        for (Ball b : Ball.values()) {
+            Body body = balls.getBody(b);
+
+            if (world.containsBody(body)) {
+                world.removeBody(body);
+            }
+        }
+
+        for (Ball b : Ball.values()) {
+            Body body = balls.getBody(b);
+
+            balls.setPosition(b, s.getX(b), s.getY(b));
+            pockets.reset(b, s.getX(b), s.getY(b));
+            body.setLinearVelocity(s.getVelocityX(b), s.getVelocityY(b));
+            body.clearAccumulatedForce();
+            body.setAngularVelocity(0);
+
+            if (s.isOnTable(b)) {
+                world.addBody(body);
             }
         }
 
-        if (movingBallCount > 0 && !objectsMoving) {
-            objectsRestListener.onEndAllObjectsRest();
+        // resting balls are put to sleep, no rest change is reported for the
+        // restored state itself
+        motion.reset();
+        objectsMoving = motion.getMovingBallCount() > 0;
+
+        snapshotListener.ifPresent(l -> l.onRestore(s));
+    }
+
+    @Override
+    public void begin(Step step, World world) {
+        boolean moving = motion.update(step.getDeltaTime());
+
+        if (moving && !objectsMoving) {
+            events.objectsMoving();
             objectsMoving = true;
 
-        } else if (movingBallCount == 0 && objectsMoving) {
-            objectsRestListener.onStartAllObjectsRest();
+        } else if (!moving && objectsMoving) {
+            events.objectsResting();
             objectsMoving = false;
         }
     }
@@ -68,17 +225,19 @@ public class Physics implements ContactListener, StepListener {
 
     @Override
     public void sensed(ContactPoint point) {
-        System.out.println("POCKET DETECTED");
+
     }
 
     @Override
     public boolean begin(ContactPoint point) {
+        this.touch(point.getBody1());
+        this.touch(point.getBody2());
 
         if (point.getBody1().getUserData() instanceof Ball && point.getBody2().getUserData() instanceof Ball) {
             Ball ball1 = (Ball) point.getBody1().getUserData();
             Ball ball2 = (Ball) point.getBody2().getUserData();
 
-            ballsCollisionListener.onBallsCollide(ball1, ball2);
+            events.ballsCollided(ball1, ball2);
         }
 
         return true;
@@ -92,50 +251,40 @@ public class Physics implements ContactListener, StepListener {
     @Override
     public boolean persist(PersistedContactPoint point) {
         if (point.isSensor()) {
-            Body ball;
-            Body pocket;
-            Vector2 pocketCenter;
-
-            if (point.getBody1().getUserData() instanceof Ball) {
-                ball = point.getBody1();
-                pocket = point.getBody2();
-                pocketCenter = point.getFixture2().getShape().getCenter();
-            } else {
-                ball = point.getBody2();
-                pocket = point.getBody1();
-                pocketCenter = point.getFixture1().getShape().getCenter();
-            }
-
-            if (isBallPocketed(ball, pocket, pocketCenter)) {
-                ballPocketedListener.onBallPocketed((Ball) ball.getUserData());
+            // the only sensors are the pockets of the table
+            Body ball = point.getBody1().getUserData() instanceof Ball ? point.getBody1() : point.getBody2();
+            Ball b = (Ball) ball.getUserData();
+            Transform t = ball.getTransform();
+
+            if (pockets.capture(b, t.getTranslationX(), t.getTranslationY())) {
+                // the ball drops into the pocket and stops there, listeners
+                // take it off the table after the step
+                ball.setLinearVelocity(0, 0);
+                events.ballPocketed(b);
             }
+        } else {
+            // a resting ball can be pushed by one it already touched
+            this.touch(point.getBody1());
+            this.touch(point.getBody2());
         }
 
         return true;
     }
 
-    private boolean isBallPocketed(Body ball, Body pocket, Vector2 pocketCenter) {
-        // World coordinates of ball
-        Vector2 ballPosition = ball.getTransform().getTranslation();
-
-        // Pocket position (relative to table)
-        Vector2 pocketPosition = pocket.getTransform().getTranslation();
-
-        // World coordinates of pocket
-        Vector2 pocketInWorld = pocketPosition.add(pocketCenter);
-
-        Vector2 difference = ballPosition.difference(pocketInWorld);
-        double magnitudeDifference = difference.getMagnitude();
-
-        return magnitudeDifference <= Ball.Constants.RADIUS;
+    private void touch(Body body) {
+        if (body.getUserData() instanceof Ball) {
+            motion.touch((Ball) body.getUserData());
+        }
     }
 
-    public void setBallPocketedListener(BallPocketedListener ballPocketedListener) {
-        this.ballPocketedListener = ballPocketedListener;
+    @Override
+    public PhysicsEventBus getEvents() {
+        return events;
     }
 
-    public void setObjectsRestListener(ObjectsRestListener objectsRestListener) {
-        this.objectsRestListener = objectsRestListener;
+    @Override
+    public void setSnapshotListener(SnapshotListener snapshotListener) {
+        this.snapshotListener = Optional.of(snapshotListener);
     }
 
     @Override
@@ -148,8 +297,4 @@ public class Physics implements ContactListener, StepListener {
 
     }
 
-
-    public void setBallsCollisionListener(BallsCollisionListener ballsCollisionListener) {
-        this.ballsCollisionListener = ballsCollisionListener;
-    }
 }
@@ -0,0 +1,46 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+// Everything Game, the Renderer and the Simulator need from the simulation of
+// a table. Physics steps a dyn4j world, AnalyticPhysics jumps from event to
+// event; both report through the same event bus, after every step.
+public interface PhysicsEngine {
+    Table getTable();
+
+    // advances the simulation by dt seconds
+    void step(double dt);
+
+    // applies the cue force IN WORLD COORDINATES to the ball the ray hits
+    Optional<Ball> strike(Ray ray, Vector2 force);
+
+    // puts the ball on the table at x/y, resting
+    void placeBall(Ball b, double x, double y);
+
+    // takes the ball off the table, e.g. after it was pocketed
+    void removeBall(Ball b);
+
+    boolean isOnTable(Ball b);
+
+    double getX(Ball b);
+
+    double getY(Ball b);
+
+    // speed of the fastest ball on the table in m/s, 0 if all rest
+    double getMaxSpeed();
+
+    Snapshot snapshot();
+
+    Snapshot snapshot(Snapshot s);
+
+    void restore(Snapshot s);
+
+    PhysicsEventBus getEvents();
+
+    void setSnapshotListener(SnapshotListener snapshotListener);
+}
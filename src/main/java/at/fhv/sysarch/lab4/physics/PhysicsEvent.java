@@ -0,0 +1,38 @@
+package at.fhv.sysarch.lab4.physics;
+
+import at.fhv.sysarch.lab4.game.Ball;
+
+// Something that happened during a physics step. Events are owned and reused
+// by the PhysicsEventBus, they are only valid while they are delivered.
+public class PhysicsEvent {
+    public enum Type {
+        BALL_POCKETED,
+        BALLS_COLLIDED,
+        OBJECTS_MOVING,
+        OBJECTS_RESTING
+    }
+
+    private Type type;
+    private Ball ball;
+    private Ball other;
+
+    void set(Type type, Ball ball, Ball other) {
+        this.type = type;
+        this.ball = ball;
+        this.other = other;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // the pocketed ball or the first of both colliding balls, null for the rest events
+    public Ball getBall() {
+        return ball;
+    }
+
+    // the second of both colliding balls, null for all other events
+    public Ball getOther() {
+        return other;
+    }
+}
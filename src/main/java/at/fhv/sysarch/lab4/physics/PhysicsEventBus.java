@@ -0,0 +1,132 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import at.fhv.sysarch.lab4.game.Ball;
+
+// Collects the events of a physics step and delivers them to any number of
+// listeners after the step, instead of calling a single listener from within
+// the contact callbacks of the solver. Listeners may change the world then,
+// e.g. take a pocketed ball off the table.
+//
+// The events are kept in a preallocated buffer which is drained completely
+// by every flush. It only grows if a single step ever posts more events than
+// it holds, nothing is allocated per event.
+public class PhysicsEventBus {
+    public final static int DEFAULT_CAPACITY = 64;
+
+    private PhysicsEvent[] events;
+    private int count = 0;
+
+    private final List<BallPocketedListener> ballPocketedListeners = new ArrayList<>();
+    private final List<BallsCollisionListener> ballsCollisionListeners = new ArrayList<>();
+    private final List<ObjectsRestListener> objectsRestListeners = new ArrayList<>();
+    private final List<PhysicsEventListener> eventListeners = new ArrayList<>();
+
+    public PhysicsEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PhysicsEventBus(int capacity) {
+        this.events = new PhysicsEvent[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new PhysicsEvent();
+        }
+    }
+
+    public void addBallPocketedListener(BallPocketedListener l) {
+        ballPocketedListeners.add(l);
+    }
+
+    public void addBallsCollisionListener(BallsCollisionListener l) {
+        ballsCollisionListeners.add(l);
+    }
+
+    public void addObjectsRestListener(ObjectsRestListener l) {
+        objectsRestListeners.add(l);
+    }
+
+    public void addEventListener(PhysicsEventListener l) {
+        eventListeners.add(l);
+    }
+
+    // events waiting for the next flush
+    public int getPendingCount() {
+        return count;
+    }
+
+    void ballPocketed(Ball b) {
+        this.post(PhysicsEvent.Type.BALL_POCKETED, b, null);
+    }
+
+    void ballsCollided(Ball b1, Ball b2) {
+        this.post(PhysicsEvent.Type.BALLS_COLLIDED, b1, b2);
+    }
+
+    void objectsMoving() {
+        this.post(PhysicsEvent.Type.OBJECTS_MOVING, null, null);
+    }
+
+    void objectsResting() {
+        this.post(PhysicsEvent.Type.OBJECTS_RESTING, null, null);
+    }
+
+    // delivers all events in the order they were posted, called by the
+    // engines at the end of every step
+    void flush() {
+        // listeners may cause further events, they are delivered in the same flush
+        for (int i = 0; i < count; i++) {
+            this.deliver(events[i]);
+        }
+
+        count = 0;
+    }
+
+    private void post(PhysicsEvent.Type type, Ball ball, Ball other) {
+        if (count == events.length) {
+            int capacity = events.length * 2;
+            events = Arrays.copyOf(events, capacity);
+
+            for (int i = count; i < capacity; i++) {
+                events[i] = new PhysicsEvent();
+            }
+        }
+
+        events[count++].set(type, ball, other);
+    }
+
+    private void deliver(PhysicsEvent e) {
+        switch (e.getType()) {
+            case BALL_POCKETED:
+                for (int i = 0; i < ballPocketedListeners.size(); i++) {
+                    ballPocketedListeners.get(i).onBallPocketed(e.getBall());
+                }
+                break;
+
+            case BALLS_COLLIDED:
+                for (int i = 0; i < ballsCollisionListeners.size(); i++) {
+                    ballsCollisionListeners.get(i).onBallsCollide(e.getBall(), e.getOther());
+                }
+                break;
+
+            case OBJECTS_MOVING:
+                for (int i = 0; i < objectsRestListeners.size(); i++) {
+                    objectsRestListeners.get(i).onEndAllObjectsRest();
+                }
+                break;
+
+            case OBJECTS_RESTING:
+                for (int i = 0; i < objectsRestListeners.size(); i++) {
+                    objectsRestListeners.get(i).onStartAllObjectsRest();
+                }
+                break;
+        }
+
+        for (int i = 0; i < eventListeners.size(); i++) {
+            eventListeners.get(i).onPhysicsEvent(e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package at.fhv.sysarch.lab4.physics;
+
+// gets every event of the bus, e.g. for statistics or recording
+public interface PhysicsEventListener {
+    public void onPhysicsEvent(PhysicsEvent e);
+}
@@ -0,0 +1,159 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Steps a physics engine with a fixed rate on a thread of its own, so a slow
+// step doesn't drop frames and a slow frame doesn't slow down the simulation.
+// The engine and its listeners are only used on this thread: everything else
+// is passed in as task (see execute) and the positions of the balls are
+// passed out as BallFrames after every step.
+//
+// While the table rests and there is nothing to do the loop doesn't step at
+// all, it sleeps until the next task. The step count keeps running with the
+// time meanwhile, so it stays a clock for the step listeners.
+public class PhysicsLoop implements Executor, Runnable {
+    // after falling behind by more steps than this, e.g. after a GC pause, the
+    // loop continues from now instead of catching up
+    private final static int MAX_STEPS_BEHIND = 16;
+    // step listeners are still called this often while the loop sleeps
+    private final static long IDLE_LISTENER_NANOS = 1000_000_000L;
+
+    private final PhysicsEngine physics;
+    private final double step;
+    private final long stepNanos;
+    private final BallFrames frames = new BallFrames();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final List<PhysicsStepListener> stepListeners = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = false;
+    private BooleanSupplier atRest = () -> false;
+    private long steps = 0;
+
+    public PhysicsLoop(PhysicsEngine physics) {
+        this(physics, Physics.DEFAULT_STEP);
+    }
+
+    public PhysicsLoop(PhysicsEngine physics, double step) {
+        this.physics = physics;
+        this.step = step;
+        this.stepNanos = (long) (step * 1000_000_000.0);
+
+        this.thread = new Thread(this, "physics");
+        this.thread.setDaemon(true);
+
+        // the renderer may draw before the first step
+        this.publish();
+    }
+
+    public BallFrames getFrames() {
+        return frames;
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    public void addStepListener(PhysicsStepListener l) {
+        stepListeners.add(l);
+    }
+
+    // asked on the physics thread before every step, the loop sleeps while
+    // it returns true, e.g. while the game reports the table at rest; to be
+    // set before the loop is started
+    public void setAtRest(BooleanSupplier atRest) {
+        this.atRest = atRest;
+    }
+
+    // runs the task on the physics thread before the next step
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+
+        while (running) {
+            boolean ranTask = false;
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+                ranTask = true;
+            }
+
+            // a task, e.g. a shot, gets at least one step to set balls moving
+            if (!ranTask && atRest.getAsBoolean()) {
+                next = this.idle(next);
+                continue;
+            }
+
+            this.step();
+
+            next += stepNanos;
+            long wait = next - System.nanoTime();
+
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > MAX_STEPS_BEHIND * stepNanos) {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    private void step() {
+        physics.step(step);
+        steps++;
+        this.publish();
+        this.notifyStepListeners();
+    }
+
+    // sleeps until woken by a task, returns when the next step is due: the
+    // time slept is skipped, not caught up
+    private long idle(long next) {
+        if (stepListeners.isEmpty()) {
+            LockSupport.park(this);
+        } else {
+            LockSupport.parkNanos(this, IDLE_LISTENER_NANOS);
+        }
+
+        long skipped = (System.nanoTime() - next) / stepNanos;
+        if (skipped <= 0) {
+            return next;
+        }
+
+        steps += skipped;
+        this.publish();
+        this.notifyStepListeners();
+
+        return next + skipped * stepNanos;
+    }
+
+    private void notifyStepListeners() {
+        for (PhysicsStepListener l : stepListeners) {
+            l.onStep(steps);
+        }
+    }
+
+    private void publish() {
+        frames.getBack().capture(physics, steps);
+        frames.publish();
+    }
+}
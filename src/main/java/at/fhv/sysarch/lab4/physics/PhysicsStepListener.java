@@ -0,0 +1,7 @@
+package at.fhv.sysarch.lab4.physics;
+
+// called by the PhysicsLoop after every step, on the physics thread
+@FunctionalInterface
+public interface PhysicsStepListener {
+    public void onStep(long step);
+}
@@ -0,0 +1,91 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Table;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.Vector2;
+
+// The pockets of a table IN WORLD COORDINATES, taken once from the pocket
+// fixtures of the Table. A ball is in a pocket once its center is within a
+// ball radius of the pocket center. Every ball is captured only once, until
+// it is placed on the table again.
+class Pockets {
+    private final static double RADIUS_SQUARED = Ball.Constants.RADIUS * Ball.Constants.RADIUS;
+
+    private final double[] centerX;
+    private final double[] centerY;
+
+    private final boolean[] pocketed = new boolean[Ball.values().length];
+
+    Pockets(Table table) {
+        List<Vector2> centers = new ArrayList<>();
+
+        for (BodyFixture f : table.getBody().getFixtures()) {
+            if (f.getUserData() == Table.TablePart.POCKET) {
+                centers.add(table.getBody().getTransform().getTransformed(f.getShape().getCenter()));
+            }
+        }
+
+        this.centerX = new double[centers.size()];
+        this.centerY = new double[centers.size()];
+
+        for (int i = 0; i < centers.size(); i++) {
+            centerX[i] = centers.get(i).x;
+            centerY[i] = centers.get(i).y;
+        }
+    }
+
+    int getCount() {
+        return centerX.length;
+    }
+
+    double getX(int pocket) {
+        return centerX[pocket];
+    }
+
+    double getY(int pocket) {
+        return centerY[pocket];
+    }
+
+    boolean isInPocket(double x, double y) {
+        for (int i = 0; i < centerX.length; i++) {
+            double dx = x - centerX[i];
+            double dy = y - centerY[i];
+
+            if (dx * dx + dy * dy <= RADIUS_SQUARED) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // true only the first time the ball is found in a pocket
+    boolean capture(Ball b, double x, double y) {
+        if (pocketed[b.ordinal()] || !isInPocket(x, y)) {
+            return false;
+        }
+
+        pocketed[b.ordinal()] = true;
+
+        return true;
+    }
+
+    // for balls which dropped in without touching a pocket center, e.g.
+    // by leaving the table between the jaws
+    void markPocketed(Ball b) {
+        pocketed[b.ordinal()] = true;
+    }
+
+    boolean isPocketed(Ball b) {
+        return pocketed[b.ordinal()];
+    }
+
+    // the ball was put at x/y, e.g. placed on the table again or restored
+    void reset(Ball b, double x, double y) {
+        pocketed[b.ordinal()] = isInPocket(x, y);
+    }
+}
@@ -0,0 +1,83 @@
+package at.fhv.sysarch.lab4.physics;
+
+import java.util.Arrays;
+
+import at.fhv.sysarch.lab4.game.Ball;
+
+// The state of a table in one flat array: position and linear velocity of
+// every ball, a bit mask of the balls on the table and a few slots for the
+// state of the game rules (see SnapshotListener). 73 doubles, 584 bytes.
+public class Snapshot {
+    public final static int GAME_STATE_SLOTS = 8;
+
+    private final static int BALL_SLOTS = 4;
+    private final static int ON_TABLE = Ball.values().length * BALL_SLOTS;
+    private final static int GAME_STATE = ON_TABLE + 1;
+    private final static int SIZE = GAME_STATE + GAME_STATE_SLOTS;
+
+    private final double[] data;
+
+    public Snapshot() {
+        this.data = new double[SIZE];
+    }
+
+    public Snapshot(double[] data) {
+        if (data.length != SIZE) {
+            throw new IllegalArgumentException("Snapshot needs " + SIZE + " values, got " + data.length);
+        }
+        this.data = data.clone();
+    }
+
+    public double[] toArray() {
+        return data.clone();
+    }
+
+    public double getGameState(int slot) {
+        return data[GAME_STATE + slot];
+    }
+
+    public void setGameState(int slot, double value) {
+        data[GAME_STATE + slot] = value;
+    }
+
+    public double getX(Ball b) {
+        return data[b.ordinal() * BALL_SLOTS];
+    }
+
+    public double getY(Ball b) {
+        return data[b.ordinal() * BALL_SLOTS + 1];
+    }
+
+    public double getVelocityX(Ball b) {
+        return data[b.ordinal() * BALL_SLOTS + 2];
+    }
+
+    public double getVelocityY(Ball b) {
+        return data[b.ordinal() * BALL_SLOTS + 3];
+    }
+
+    public boolean isOnTable(Ball b) {
+        return (((long) data[ON_TABLE]) & (1L << b.ordinal())) != 0;
+    }
+
+    void setBall(Ball b, double x, double y, double vx, double vy, boolean onTable) {
+        int i = b.ordinal() * BALL_SLOTS;
+        data[i] = x;
+        data[i + 1] = y;
+        data[i + 2] = vx;
+        data[i + 3] = vy;
+
+        long mask = (long) data[ON_TABLE];
+        data[ON_TABLE] = onTable ? mask | (1L << b.ordinal()) : mask & ~(1L << b.ordinal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Snapshot && Arrays.equals(data, ((Snapshot) o).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+}
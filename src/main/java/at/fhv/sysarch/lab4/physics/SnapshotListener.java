@@ -0,0 +1,11 @@
+package at.fhv.sysarch.lab4.physics;
+
+public interface SnapshotListener {
+
+    // store the own state in the game state slots of the snapshot
+    public void onSnapshot(Snapshot s);
+
+    // called after the balls were restored
+    public void onRestore(Snapshot s);
+
+}
@@ -0,0 +1,137 @@
+package at.fhv.sysarch.lab4.pit;
+
+import java.util.Random;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.BallSet;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.Capacity;
+import org.dyn4j.dynamics.ContinuousDetectionMode;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+
+// A table with any number of pool balls instead of the 16 of Ball, to see how
+// the physics scales with the number of bodies. The table grows with the
+// ball count, so the balls always cover the same share of it. It has plain
+// walls and no pockets; the balls are the bodies of a BallSet.
+public class BallPit {
+    public final static double DEFAULT_COVERAGE = 0.25;
+    public final static double MAX_SPEED = 2.0;
+    private final static double WALL_SIZE = 0.1;
+
+    private final World world;
+    private final Body[] balls;
+    private final double width;
+    private final double height;
+    private final Random random;
+
+    public BallPit(int count, Broadphase broadphase, long seed) {
+        this(count, broadphase, DEFAULT_COVERAGE, seed);
+    }
+
+    public BallPit(int count, Broadphase broadphase, double coverage, long seed) {
+        double radius = Ball.Constants.RADIUS;
+
+        // twice as wide as high, like the table
+        this.height = Math.sqrt(count * Math.PI * radius * radius / coverage / 2);
+        this.width = 2 * height;
+        this.random = new Random(seed);
+
+        this.world = new World(new Capacity(count + 4, 0, 0));
+        this.world.setGravity(World.ZERO_GRAVITY);
+        this.world.setBroadphaseDetector(broadphase.create());
+        // no ball gets faster than MAX_SPEED, which moves it far less than its
+        // radius per step: continuous collision detection would only take time
+        this.world.getSettings().setContinuousDetectionMode(ContinuousDetectionMode.NONE);
+
+        this.addWall(0, (height + WALL_SIZE) * 0.5, width + 2 * WALL_SIZE, WALL_SIZE);
+        this.addWall(0, -(height + WALL_SIZE) * 0.5, width + 2 * WALL_SIZE, WALL_SIZE);
+        this.addWall((width + WALL_SIZE) * 0.5, 0, WALL_SIZE, height);
+        this.addWall(-(width + WALL_SIZE) * 0.5, 0, WALL_SIZE, height);
+
+        // one ball per cell of a grid, at a random spot within the cell
+        int cols = (int) Math.ceil(Math.sqrt(count * 2.0));
+        int rows = (int) Math.ceil((double) count / cols);
+        double cellWidth = width / cols;
+        double cellHeight = height / rows;
+
+        BallSet set = new BallSet(count);
+        this.balls = new Body[count];
+
+        for (int i = 0; i < count; i++) {
+            double x = -width * 0.5 + cellWidth * ((i % cols) + 0.5);
+            double y = -height * 0.5 + cellHeight * ((i / cols) + 0.5);
+
+            x += (random.nextDouble() - 0.5) * Math.max(0, cellWidth - 2 * radius);
+            y += (random.nextDouble() - 0.5) * Math.max(0, cellHeight - 2 * radius);
+
+            balls[i] = set.getBody(i);
+            balls[i].translate(x, y);
+            world.addBody(balls[i]);
+        }
+
+        this.shake();
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getBallCount() {
+        return balls.length;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getX(int ball) {
+        return balls[ball].getTransform().getTranslationX();
+    }
+
+    public double getY(int ball) {
+        return balls[ball].getTransform().getTranslationY();
+    }
+
+    public void step(double dt) {
+        world.step(1, dt);
+    }
+
+    // every ball gets a random velocity up to MAX_SPEED, e.g. once the balls slowed down
+    public void shake() {
+        for (Body ball : balls) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double speed = random.nextDouble() * MAX_SPEED;
+
+            ball.setAsleep(false);
+            ball.setLinearVelocity(Math.cos(angle) * speed, Math.sin(angle) * speed);
+        }
+    }
+
+    // number of balls the world did not put to sleep
+    public int getAwakeCount() {
+        int awake = 0;
+
+        for (Body ball : balls) {
+            if (!ball.isAsleep()) {
+                awake++;
+            }
+        }
+
+        return awake;
+    }
+
+    private void addWall(double x, double y, double w, double h) {
+        Body wall = new Body();
+        wall.addFixture(Geometry.createRectangle(w, h));
+        wall.translate(x, y);
+        wall.setMass(MassType.INFINITE);
+
+        world.addBody(wall);
+    }
+}
@@ -0,0 +1,37 @@
+package at.fhv.sysarch.lab4.pit;
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.BruteForceBroadphase;
+import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.LazyAABBTree;
+import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+
+import at.fhv.sysarch.lab4.game.Ball;
+
+// the broadphase implementations a BallPit can be stepped with
+public enum Broadphase {
+    // the default of dyn4j
+    DYNAMIC_AABB_TREE,
+    LAZY_AABB_TREE,
+    SAP,
+    BRUTE_FORCE,
+    // cells of one ball diameter
+    UNIFORM_GRID;
+
+    public BroadphaseDetector<Body, BodyFixture> create() {
+        switch (this) {
+            case LAZY_AABB_TREE:
+                return new LazyAABBTree<>();
+            case SAP:
+                return new Sap<>();
+            case BRUTE_FORCE:
+                return new BruteForceBroadphase<>();
+            case UNIFORM_GRID:
+                return new UniformGridBroadphase<>(2 * Ball.Constants.RADIUS);
+            default:
+                return new DynamicAABBTree<>();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package at.fhv.sysarch.lab4.pit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.collision.broadphase.AbstractBroadphaseDetector;
+import org.dyn4j.collision.broadphase.BroadphaseFilter;
+import org.dyn4j.collision.broadphase.BroadphaseItem;
+import org.dyn4j.collision.broadphase.BroadphasePair;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+// Broadphase for many bodies of about the same size, e.g. balls: the fixtures
+// are sorted into a grid of square cells, sized to the diameter of a ball, and
+// only fixtures sharing a cell are tested against each other.
+//
+// The grid is rebuilt from scratch by every detect with a counting sort into
+// flat arrays, which costs the same no matter how much the bodies moved and
+// allocates nothing but the pairs dyn4j wants. It spans the AABBs of all
+// fixtures; if these are spread too far for the cell size, e.g. by a ball
+// which left the table, the cells are made larger for that detect.
+//
+// AABB queries and raycasts are rare (the cue only), they test all fixtures.
+public class UniformGridBroadphase<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> {
+    // cells of the grid at most per fixture, before the cells are made larger
+    private final static int MAX_CELLS_PER_FIXTURE = 8;
+
+    private final double cellSize;
+
+    private final Map<T, Proxy<E, T>> proxies = new IdentityHashMap<>();
+    private final List<Proxy<E, T>> proxyList = new ArrayList<>();
+
+    // the grid of the last detect: the fixtures of cell c are
+    // entries[cellStart[c]] to entries[cellStart[c + 1] - 1]
+    private int[] cellStart = new int[0];
+    private int[] cellFill = new int[0];
+    private int[] entries = new int[0];
+
+    public UniformGridBroadphase(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public void add(E collidable, T fixture) {
+        Proxy<E, T> proxy = proxies.get(fixture);
+
+        if (proxy == null) {
+            proxy = new Proxy<>(collidable, fixture, proxyList.size());
+            proxies.put(fixture, proxy);
+            proxyList.add(proxy);
+        }
+
+        proxy.aabb = fixture.getShape().createAABB(collidable.getTransform());
+    }
+
+    @Override
+    public boolean remove(E collidable, T fixture) {
+        Proxy<E, T> proxy = proxies.remove(fixture);
+
+        if (proxy == null) {
+            return false;
+        }
+
+        // the last proxy takes the place of the removed one
+        Proxy<E, T> last = proxyList.remove(proxyList.size() - 1);
+        if (last != proxy) {
+            last.index = proxy.index;
+            proxyList.set(proxy.index, last);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void update(E collidable, T fixture) {
+        this.add(collidable, fixture);
+    }
+
+    @Override
+    public AABB getAABB(E collidable, T fixture) {
+        Proxy<E, T> proxy = proxies.get(fixture);
+
+        return proxy == null ? fixture.getShape().createAABB(collidable.getTransform()) : proxy.aabb;
+    }
+
+    @Override
+    public boolean contains(E collidable, T fixture) {
+        Proxy<E, T> proxy = proxies.get(fixture);
+
+        return proxy != null && proxy.collidable == collidable;
+    }
+
+    @Override
+    public void clear() {
+        proxies.clear();
+        proxyList.clear();
+    }
+
+    @Override
+    public int size() {
+        return proxyList.size();
+    }
+
+    @Override
+    public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+        int n = proxyList.size();
+
+        if (n < 2) {
+            return Collections.emptyList();
+        }
+
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+
+        for (int i = 0; i < n; i++) {
+            AABB aabb = proxyList.get(i).aabb;
+            minX = Math.min(minX, aabb.getMinX());
+            minY = Math.min(minY, aabb.getMinY());
+            maxX = Math.max(maxX, aabb.getMaxX());
+            maxY = Math.max(maxY, aabb.getMaxY());
+        }
+
+        double size = cellSize;
+        int cols = (int) ((maxX - minX) / size) + 1;
+        int rows = (int) ((maxY - minY) / size) + 1;
+
+        while ((long) cols * rows > (long) MAX_CELLS_PER_FIXTURE * n) {
+            size *= 2;
+            cols = (int) ((maxX - minX) / size) + 1;
+            rows = (int) ((maxY - minY) / size) + 1;
+        }
+
+        int cells = cols * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+            cellFill = new int[cells + 1];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+        }
+
+        // count the fixtures per cell
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            Proxy<E, T> p = proxyList.get(i);
+            AABB aabb = p.aabb;
+
+            p.minCol = (int) ((aabb.getMinX() - minX) / size);
+            p.maxCol = (int) ((aabb.getMaxX() - minX) / size);
+            p.minRow = (int) ((aabb.getMinY() - minY) / size);
+            p.maxRow = (int) ((aabb.getMaxY() - minY) / size);
+
+            for (int row = p.minRow; row <= p.maxRow; row++) {
+                for (int col = p.minCol; col <= p.maxCol; col++) {
+                    cellStart[row * cols + col + 1]++;
+                }
+            }
+
+            total += (p.maxCol - p.minCol + 1) * (p.maxRow - p.minRow + 1);
+        }
+
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        if (entries.length < total) {
+            entries = new int[total];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, cells);
+
+        for (int i = 0; i < n; i++) {
+            Proxy<E, T> p = proxyList.get(i);
+
+            for (int row = p.minRow; row <= p.maxRow; row++) {
+                for (int col = p.minCol; col <= p.maxCol; col++) {
+                    entries[cellFill[row * cols + col]++] = i;
+                }
+            }
+        }
+
+        List<BroadphasePair<E, T>> pairs = new ArrayList<>(n);
+
+        for (int c = 0; c < cells; c++) {
+            int end = cellStart[c + 1];
+
+            for (int a = cellStart[c]; a < end; a++) {
+                Proxy<E, T> p = proxyList.get(entries[a]);
+
+                for (int b = a + 1; b < end; b++) {
+                    Proxy<E, T> q = proxyList.get(entries[b]);
+
+                    if (p.collidable == q.collidable || !p.aabb.overlaps(q.aabb)) {
+                        continue;
+                    }
+
+                    // fixtures spanning several cells share more than one, the
+                    // pair is only taken in the cell of the corner of their overlap
+                    int col = Math.max(p.minCol, q.minCol);
+                    int row = Math.max(p.minRow, q.minRow);
+
+                    if (row * cols + col == c && filter.isAllowed(p.collidable, p.fixture, q.collidable, q.fixture)) {
+                        pairs.add(new BroadphasePair<>(p.collidable, p.fixture, q.collidable, q.fixture));
+                    }
+                }
+            }
+        }
+
+        return pairs;
+    }
+
+    @Override
+    public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+        List<BroadphaseItem<E, T>> items = new ArrayList<>();
+
+        for (int i = 0; i < proxyList.size(); i++) {
+            Proxy<E, T> p = proxyList.get(i);
+
+            if (aabb.overlaps(p.aabb) && filter.isAllowed(aabb, p.collidable, p.fixture)) {
+                items.add(new BroadphaseItem<>(p.collidable, p.fixture));
+            }
+        }
+
+        return items;
+    }
+
+    @Override
+    public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+        if (proxyList.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Vector2 s = ray.getStart();
+        Vector2 d = ray.getDirectionVector();
+        double l = length <= 0 ? Double.MAX_VALUE : length;
+
+        AABB bounds = AABB.createAABBFromPoints(s.x, s.y, s.x + d.x * l, s.y + d.y * l);
+        double invDx = 1.0 / d.x;
+        double invDy = 1.0 / d.y;
+
+        List<BroadphaseItem<E, T>> items = new ArrayList<>();
+
+        for (int i = 0; i < proxyList.size(); i++) {
+            Proxy<E, T> p = proxyList.get(i);
+
+            if (bounds.overlaps(p.aabb)
+                    && this.raycast(s, l, invDx, invDy, p.aabb)
+                    && filter.isAllowed(ray, l, p.collidable, p.fixture)) {
+                items.add(new BroadphaseItem<>(p.collidable, p.fixture));
+            }
+        }
+
+        return items;
+    }
+
+    @Override
+    public void shift(Vector2 shift) {
+        for (int i = 0; i < proxyList.size(); i++) {
+            proxyList.get(i).aabb.translate(shift);
+        }
+    }
+
+    // the grid is rebuilt anyway, expanded AABBs would only add pairs
+    @Override
+    public boolean supportsAABBExpansion() {
+        return false;
+    }
+
+    @Override
+    public double getAABBExpansion() {
+        return 0;
+    }
+
+    private static class Proxy<E, T> {
+        final E collidable;
+        final T fixture;
+        int index;
+        AABB aabb;
+        // cells covered in the last detect
+        int minCol;
+        int maxCol;
+        int minRow;
+        int maxRow;
+
+        Proxy(E collidable, T fixture, int index) {
+            this.collidable = collidable;
+            this.fixture = fixture;
+            this.index = index;
+        }
+    }
+}
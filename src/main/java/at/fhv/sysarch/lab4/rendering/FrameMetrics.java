@@ -0,0 +1,107 @@
+package at.fhv.sysarch.lab4.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import at.fhv.sysarch.lab4.metrics.Histogram;
+
+// Time spent in the phases of every frame, recorded by the Renderer on the
+// FX thread and read e.g. over JMX, see Main.
+public class FrameMetrics implements FrameMetricsMXBean {
+    public final static double DEFAULT_BUDGET_MILLIS = 1000.0 / 60.0;
+
+    public enum Phase {
+        PHYSICS,
+        FRAME_LISTENER,
+        TABLE,
+        BALLS,
+        CUE,
+        HUD,
+        // all of the above
+        FRAME
+    }
+
+    private final Histogram[] histograms = new Histogram[Phase.values().length];
+    private final long budgetNanos;
+    private final AtomicLong budgetMisses = new AtomicLong();
+
+    public FrameMetrics() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+
+    public FrameMetrics(double budgetMillis) {
+        this.budgetNanos = (long) (budgetMillis * 1000_000.0);
+
+        for (Phase p : Phase.values()) {
+            histograms[p.ordinal()] = new Histogram();
+        }
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+
+        if (phase == Phase.FRAME && nanos > budgetNanos) {
+            budgetMisses.incrementAndGet();
+        }
+    }
+
+    public Histogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    @Override
+    public long getFrames() {
+        return getHistogram(Phase.FRAME).getCount();
+    }
+
+    @Override
+    public double getBudgetMillis() {
+        return budgetNanos / 1000_000.0;
+    }
+
+    @Override
+    public long getBudgetMisses() {
+        return budgetMisses.get();
+    }
+
+    @Override
+    public Map<String, Double> getP50Millis() {
+        return this.percentiles(50);
+    }
+
+    @Override
+    public Map<String, Double> getP99Millis() {
+        return this.percentiles(99);
+    }
+
+    @Override
+    public Map<String, Double> getMaxMillis() {
+        Map<String, Double> max = new LinkedHashMap<>();
+
+        for (Phase p : Phase.values()) {
+            max.put(p.name(), getHistogram(p).getMax() / 1000_000.0);
+        }
+
+        return max;
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram h : histograms) {
+            h.reset();
+        }
+
+        budgetMisses.set(0);
+    }
+
+    private Map<String, Double> percentiles(double p) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+
+        for (Phase phase : Phase.values()) {
+            percentiles.put(phase.name(), getHistogram(phase).getPercentile(p) / 1000_000.0);
+        }
+
+        return percentiles;
+    }
+}
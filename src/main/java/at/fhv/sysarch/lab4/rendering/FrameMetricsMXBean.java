@@ -0,0 +1,21 @@
+package at.fhv.sysarch.lab4.rendering;
+
+import java.util.Map;
+
+// frame times per phase of Renderer.handle, in milliseconds
+public interface FrameMetricsMXBean {
+    long getFrames();
+
+    double getBudgetMillis();
+
+    // frames whose work took longer than the budget
+    long getBudgetMisses();
+
+    Map<String, Double> getP50Millis();
+
+    Map<String, Double> getP99Millis();
+
+    Map<String, Double> getMaxMillis();
+
+    void reset();
+}
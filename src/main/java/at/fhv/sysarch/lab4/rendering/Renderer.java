@@ -1,30 +1,47 @@
 package at.fhv.sysarch.lab4.rendering;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import at.fhv.sysarch.lab4.game.Cue;
+import at.fhv.sysarch.lab4.game.GameView;
+import at.fhv.sysarch.lab4.game.Trajectory;
+import at.fhv.sysarch.lab4.game.TrajectoryPreview;
+import at.fhv.sysarch.lab4.metrics.Histogram;
+import at.fhv.sysarch.lab4.physics.BallFrame;
+import at.fhv.sysarch.lab4.physics.BallFrames;
 import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Polygon;
-import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
 import at.fhv.sysarch.lab4.game.Ball;
 import at.fhv.sysarch.lab4.game.Table;
 import at.fhv.sysarch.lab4.game.Table.TablePart;
+import at.fhv.sysarch.lab4.rendering.FrameMetrics.Phase;
 import javafx.animation.AnimationTimer;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ArcType;
 import javafx.scene.transform.Affine;
 
-public class Renderer extends AnimationTimer {
+public class Renderer extends AnimationTimer implements GameView {
     private long lastUpdate;
     private List<Ball> balls;
     private Table table;
+    // nothing on the table moves, it is drawn once into an image which is
+    // only rebuilt for another table
+    private WritableImage tableLayer;
+    // all balls pre-rendered at SCALE, see renderBallAtlas
+    private WritableImage ballAtlas;
+    private double spriteSize;
     private Optional<Cue> cue;
 
     private final GraphicsContext gc;
@@ -43,6 +60,32 @@ public class Renderer extends AnimationTimer {
     private final double[] xsBuffer = new double[4];
     private final double[] ysBuffer = new double[4];
 
+    // physics is stepped with a fixed step, the accumulator keeps the time
+    // of the frames which was not yet simulated
+    public final static int DEFAULT_MAX_STEPS_PER_FRAME = 16;
+    private double physicsStep = Physics.DEFAULT_STEP;
+    private int maxStepsPerFrame = DEFAULT_MAX_STEPS_PER_FRAME;
+    private double accumulator;
+
+    // ball positions before the last physics step, used to interpolate
+    // between the last two steps when drawing
+    private final double[] previousX = new double[Ball.values().length];
+    private final double[] previousY = new double[Ball.values().length];
+    private final boolean[] snapToPosition = new boolean[Ball.values().length];
+
+    // text on top of the scene, drawn from a cached image, see renderHudLayer
+    private WritableImage hudLayer;
+    public final static double FPS_REFRESH_INTERVAL = 0.25;
+    private String fpsText = "";
+    private double fpsTime;
+    private int fpsFrames;
+
+    // time spent in every phase of a frame and an optional overlay showing it
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final Affine overlayTrans;
+    private final String[] overlayLines = new String[Phase.values().length + 1];
+    private boolean metricsOverlay = false;
+
     private String strikeMessage;
     private String foulMessage;
     private String actionMessage;
@@ -51,10 +94,36 @@ public class Renderer extends AnimationTimer {
 
     private Optional<FrameListener> frameListener;
 
-    private final Physics physics;
+    // while the table rests and nobody aims, neither physics nor the scene
+    // change: frames are skipped until something marks the scene dirty
+    private boolean tableAtRest = true;
+    private boolean dirty = true;
+    // draws every frame even while idle, e.g. to measure the frame time
+    private boolean keepDrawing = false;
+
+    // empty for a renderer which only draws frames, e.g. for spectators
+    private final Optional<PhysicsEngine> physics;
+    // set if a PhysicsLoop steps the physics on its own thread, the balls are
+    // then drawn from its latest frame instead of stepping the physics here
+    private Optional<BallFrames> ballFrames = Optional.empty();
+    private BallFrame frame;
+    // predicted path of the aimed shot, drawn with the cue
+    private Optional<TrajectoryPreview> trajectoryPreview = Optional.empty();
+
+    public Renderer(final GraphicsContext gc,
+                    int sceneWidth, int sceneHeight, PhysicsEngine physics) {
+        this(gc, sceneWidth, sceneHeight, Optional.of(physics));
+    }
 
+    // draws the balls of the frames only, without any physics of its own
     public Renderer(final GraphicsContext gc,
-                    int sceneWidth, int sceneHeight, Physics physics) {
+                    int sceneWidth, int sceneHeight, BallFrames ballFrames) {
+        this(gc, sceneWidth, sceneHeight, Optional.empty());
+        this.ballFrames = Optional.of(ballFrames);
+    }
+
+    private Renderer(final GraphicsContext gc,
+                     int sceneWidth, int sceneHeight, Optional<PhysicsEngine> physics) {
         this.gc = gc;
         this.physics = physics;
         this.balls = new ArrayList<>();
@@ -74,65 +143,200 @@ public class Renderer extends AnimationTimer {
         this.fpsTrans.appendTranslation(0, 10);
         this.fpsTrans.appendScale(1.5, 1.5);
 
+        this.overlayTrans = new Affine();
+        this.overlayTrans.appendTranslation(5, 40);
+        Arrays.fill(this.overlayLines, "");
+
         // caching of identity for reverting to JavaFX coordinates
         this.jfxCoords = new Affine();
 
         this.gc.setStroke(Color.WHITE);
     }
 
+    @Override
     public void setStrikeMessage(String strikeMessage) {
         this.strikeMessage = strikeMessage;
+        this.hudLayer = null;
+        this.dirty = true;
     }
 
+    @Override
     public void setActionMessage(String actionMessage) {
         this.actionMessage = actionMessage;
+        this.hudLayer = null;
+        this.dirty = true;
     }
 
+    @Override
     public void setFoulMessage(String foulMessage) {
         this.foulMessage = foulMessage;
+        this.hudLayer = null;
+        this.dirty = true;
     }
 
+    @Override
     public void setPlayer1Score(int player1Score) {
         this.player1Score = player1Score;
+        this.hudLayer = null;
+        this.dirty = true;
     }
 
+    @Override
     public void setPlayer2Score(int player2Score) {
         this.player2Score = player2Score;
+        this.hudLayer = null;
+        this.dirty = true;
     }
 
+    @Override
     public void addBall(Ball b) {
         this.balls.add(b);
+        // balls are (re-)added at a new position, don't interpolate from the old one
+        this.snapToPosition[b.ordinal()] = true;
+        this.dirty = true;
     }
 
+    @Override
     public void removeBall(Ball b) {
         this.balls.remove(b);
+        this.dirty = true;
     }
 
+    @Override
     public void setTable(Table t) {
         this.table = t;
+        this.tableLayer = null;
+        this.dirty = true;
+    }
+
+    // the physics only needs to be stepped while balls move
+    @Override
+    public void setTableAtRest(boolean tableAtRest) {
+        this.tableAtRest = tableAtRest;
+        this.dirty = true;
+    }
+
+    public void setKeepDrawing(boolean keepDrawing) {
+        this.keepDrawing = keepDrawing;
+        this.dirty = true;
     }
 
     public void setFrameListener(FrameListener l) {
         this.frameListener = Optional.of(l);
     }
 
+    public FrameMetrics getFrameMetrics() {
+        return metrics;
+    }
+
+    public void setMetricsOverlay(boolean metricsOverlay) {
+        this.metricsOverlay = metricsOverlay;
+        this.dirty = true;
+    }
+
+    public boolean isMetricsOverlay() {
+        return metricsOverlay;
+    }
+
+    public void setBallFrames(BallFrames ballFrames) {
+        this.ballFrames = Optional.of(ballFrames);
+    }
+
+    public void setTrajectoryPreview(TrajectoryPreview trajectoryPreview) {
+        this.trajectoryPreview = Optional.of(trajectoryPreview);
+    }
+
+    public void setPhysicsStep(double physicsStep) {
+        this.physicsStep = physicsStep;
+    }
+
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
     @Override
     public void handle(long now) {
+        // the very first frame has no predecessor, don't simulate the time since 0
+        if (this.lastUpdate == 0) {
+            this.lastUpdate = now;
+        }
+
+        // a dragged cue changes with every mouse move, so only idle without one
+        if (this.tableAtRest && this.cue.isEmpty() && !this.dirty && !this.keepDrawing) {
+            // don't catch up with the idle time once the balls move again
+            this.lastUpdate = now;
+            return;
+        }
+
+        this.dirty = false;
+
         double dt = (double) (now - lastUpdate) / 1000_000_000.0;
+        long frameStart = System.nanoTime();
+        long t = frameStart;
+
+        if (this.ballFrames.isPresent()) {
+            this.frame = this.ballFrames.get().latest();
+        } else {
+            this.stepPhysics(dt);
+        }
+        t = this.record(Phase.PHYSICS, t);
 
-        this.physics.getWorld().update(dt);
         this.frameListener.ifPresent(l -> l.onFrame(dt));
+        t = this.record(Phase.FRAME_LISTENER, t);
 
         this.clearWithColorBackground();
         this.drawTable();
-        this.drawBalls();
+        t = this.record(Phase.TABLE, t);
+
+        // frames of the physics thread are at most a step old, they are drawn as they are
+        this.drawBalls(this.frame == null ? this.accumulator / this.physicsStep : 1.0);
+        t = this.record(Phase.BALLS, t);
+
         this.drawCue();
-        this.drawFPS(dt);
+        t = this.record(Phase.CUE, t);
 
+        this.drawFPS(dt);
         this.drawMessages();
+        this.drawMetricsOverlay();
+        t = this.record(Phase.HUD, t);
+
+        this.metrics.record(Phase.FRAME, t - frameStart);
         this.lastUpdate = now;
     }
 
+    private long record(Phase phase, long start) {
+        long end = System.nanoTime();
+        this.metrics.record(phase, end - start);
+
+        return end;
+    }
+
+    private void stepPhysics(double dt) {
+        this.accumulator += dt;
+
+        int steps = 0;
+        while (this.accumulator >= this.physicsStep && steps < this.maxStepsPerFrame) {
+            this.storePreviousPositions();
+            this.physics.get().step(this.physicsStep);
+
+            this.accumulator -= this.physicsStep;
+            steps++;
+        }
+
+        // after a long frame (e.g. GC pause) drop the time we can't catch up
+        // with instead of spiralling into ever longer frames
+        if (steps == this.maxStepsPerFrame) {
+            this.accumulator = Math.min(this.accumulator, this.physicsStep);
+        }
+    }
+
+    private void storePreviousPositions() {
+        for (Ball b : this.balls) {
+            this.previousX[b.ordinal()] = this.physics.get().getX(b);
+            this.previousY[b.ordinal()] = this.physics.get().getY(b);
+        }
+    }
+
     private void clearWithColorBackground() {
         // clearing of rectangle happens in JavaFX coordinate system
         this.gc.setTransform(this.jfxCoords);
@@ -140,14 +344,26 @@ public class Renderer extends AnimationTimer {
     }
 
     private void drawTable() {
+        if (this.tableLayer == null) {
+            this.tableLayer = this.renderTableLayer();
+        }
+
+        this.gc.setTransform(this.jfxCoords);
+        this.gc.drawImage(this.tableLayer, 0, 0);
+    }
+
+    private WritableImage renderTableLayer() {
+        Canvas layer = new Canvas(this.sceneWidth, this.sceneHeight);
+        GraphicsContext layerGc = layer.getGraphicsContext2D();
+
         // render green table surface (which is not a physical body!)
         double tableWidth = (Table.Constants.WIDTH + Table.Constants.CUSHION_SIZE) * SCALE;
         double tableHeight = (Table.Constants.HEIGHT + Table.Constants.CUSHION_SIZE) * SCALE;
         double tableX = -tableWidth * 0.5;
         double tableY = -tableHeight * 0.5;
-        this.gc.setTransform(this.poolCoords);
-        this.gc.setFill(Color.DARKGREEN);
-        this.gc.fillRect(tableX, tableY, tableWidth, tableHeight);
+        layerGc.setTransform(this.poolCoords);
+        layerGc.setFill(Color.DARKGREEN);
+        layerGc.fillRect(tableX, tableY, tableWidth, tableHeight);
 
         List<BodyFixture> fs = this.table.getBody().getFixtures();
         for (BodyFixture f : fs) {
@@ -155,60 +371,99 @@ public class Renderer extends AnimationTimer {
 
             switch (tp) {
                 case POCKET:
-                    this.renderPocket((Circle) f.getShape());
+                    this.renderPocket(layerGc, (Circle) f.getShape());
                     break;
                 case CUSHION:
-                    this.renderCushion((Polygon) f.getShape());
+                    this.renderCushion(layerGc, (Polygon) f.getShape());
                     break;
             }
         }
+
+        // the scene background has to show through around the table
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        return layer.snapshot(parameters, null);
     }
 
-    private void drawBalls() {
-        this.gc.setLineWidth(1);
+    private void drawBalls(double alpha) {
+        if (this.ballAtlas == null) {
+            this.ballAtlas = this.renderBallAtlas();
+        }
+
+        // rendering of billiard balls happens in their own coordinates
+        // center of the world is at center of the window not top left corner
+        this.gc.setTransform(this.poolCoords);
 
         // render billiard balls after table, so they appear on top
         for (Ball b : this.balls) {
-            Transform t = b.getBody().getTransform();
-            Circle s = b.getShape();
+            double ballX = this.frame == null ? this.physics.get().getX(b) : this.frame.getX(b);
+            double ballY = this.frame == null ? this.physics.get().getY(b) : this.frame.getY(b);
+            int i = b.ordinal();
+
+            if (this.snapToPosition[i]) {
+                this.previousX[i] = ballX;
+                this.previousY[i] = ballY;
+                this.snapToPosition[i] = false;
+            }
+
+            // interpolate between the last two physics steps by the fraction
+            // of a step which is left in the accumulator
+            double x = (this.previousX[i] + (ballX - this.previousX[i]) * alpha) * SCALE;
+            double y = (this.previousY[i] + (ballY - this.previousY[i]) * alpha) * SCALE;
 
-            double r = s.getRadius() * SCALE;
-            double d = r * 2;
+            this.gc.drawImage(this.ballAtlas,
+                    i * this.spriteSize, 0, this.spriteSize, this.spriteSize,
+                    x - this.spriteSize * 0.5, y - this.spriteSize * 0.5, this.spriteSize, this.spriteSize);
+        }
+    }
 
-            double x = t.getTranslationX() * SCALE;
-            double y = t.getTranslationY() * SCALE;
+    // every ball is drawn once into its own cell of a single image, the
+    // ball is centered in its cell
+    private WritableImage renderBallAtlas() {
+        double r = Ball.Constants.RADIUS * SCALE;
+        double d = r * 2;
+        // room for the antialiased edge
+        this.spriteSize = Math.ceil(d) + 2;
 
-            // rendering of billiard balls happens in their own coordinates
-            // center of the world is at center of the window not top left corner
-            Affine ballTrans = new Affine(this.poolCoords);
-            ballTrans.appendTranslation(x, y);
+        Canvas atlas = new Canvas(this.spriteSize * Ball.values().length, this.spriteSize);
+        GraphicsContext atlasGc = atlas.getGraphicsContext2D();
+        atlasGc.setLineWidth(1);
 
-            this.gc.setTransform(ballTrans);
+        for (Ball b : Ball.values()) {
+            Affine ballTrans = new Affine();
+            ballTrans.appendTranslation((b.ordinal() + 0.5) * this.spriteSize, this.spriteSize * 0.5);
+            atlasGc.setTransform(ballTrans);
 
             // NOTE center of physics circle is in the center
             // but javafx draws ovals from top left corner
 
-            this.gc.setFill(b.getColor());
-            this.gc.fillOval(-r, -r, d, d);
+            atlasGc.setFill(b.getColor());
+            atlasGc.fillOval(-r, -r, d, d);
 
             if (b.isWhite()) {
                 continue;
             }
 
             if (!b.isSolid()) {
-                this.gc.setFill(Color.WHITE);
-                this.gc.fillArc(-r * 0.75, -r * 0.95, d * 0.75, r * 0.75, 0, 180, ArcType.ROUND);
-                this.gc.fillArc(-r * 0.75, r * 0.2, d * 0.75, r * 0.75, 180, 180, ArcType.ROUND);
+                atlasGc.setFill(Color.WHITE);
+                atlasGc.fillArc(-r * 0.75, -r * 0.95, d * 0.75, r * 0.75, 0, 180, ArcType.ROUND);
+                atlasGc.fillArc(-r * 0.75, r * 0.2, d * 0.75, r * 0.75, 180, 180, ArcType.ROUND);
             }
 
             // white circle with black number is same for all balls (except white) 
-            this.gc.setFill(Color.WHITE);
-            this.gc.fillOval(-r * 0.5, -r * 0.5, d * 0.5, d * 0.5);
+            atlasGc.setFill(Color.WHITE);
+            atlasGc.fillOval(-r * 0.5, -r * 0.5, d * 0.5, d * 0.5);
 
-            this.gc.setStroke(Color.BLACK);
+            atlasGc.setStroke(Color.BLACK);
             int xOff = b.ordinal() >= 9 ? -8 : -5;
-            this.gc.strokeText(b.ordinal() + 1 + "", xOff, 5);
+            atlasGc.strokeText(b.ordinal() + 1 + "", xOff, 5);
         }
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        return atlas.snapshot(parameters, null);
     }
 
     private void drawCue() {
@@ -223,11 +478,46 @@ public class Renderer extends AnimationTimer {
             this.gc.setStroke(Color.color(0, 0, 0, 0.4));
             double diameter = 0.2 * SCALE;
             this.gc.strokeOval(cue.get().getStartX() - diameter / 2, cue.get().getStartY() - diameter / 2, diameter, diameter);
+
+            // whatever the preview has by now, it never holds up the frame
+            this.trajectoryPreview.flatMap(TrajectoryPreview::getLatest).ifPresent(this::drawTrajectory);
+        }
+    }
+
+    private void drawTrajectory(Trajectory t) {
+        this.gc.setTransform(this.poolCoords);
+        double r = Ball.Constants.RADIUS * SCALE;
+
+        this.gc.setStroke(Color.color(1, 1, 1, 0.6));
+        for (int i = 1; i < t.getStruckPoints(); i++) {
+            this.gc.strokeLine(t.getStruckX(i - 1) * SCALE, t.getStruckY(i - 1) * SCALE,
+                    t.getStruckX(i) * SCALE, t.getStruckY(i) * SCALE);
+        }
+
+        if (t.getHitBall().isEmpty()) {
+            return;
+        }
+
+        // a ghost of the struck ball where it hits the other one
+        int last = t.getStruckPoints() - 1;
+        this.gc.strokeOval(t.getStruckX(last) * SCALE - r, t.getStruckY(last) * SCALE - r, r * 2, r * 2);
+
+        Color color = t.getHitBall().get().getColor();
+        this.gc.setStroke(Color.color(color.getRed(), color.getGreen(), color.getBlue(), 0.8));
+        for (int i = 1; i < t.getHitPoints(); i++) {
+            this.gc.strokeLine(t.getHitX(i - 1) * SCALE, t.getHitY(i - 1) * SCALE,
+                    t.getHitX(i) * SCALE, t.getHitY(i) * SCALE);
+        }
+
+        if (t.isHitBallPocketed() && t.getHitPoints() > 0) {
+            last = t.getHitPoints() - 1;
+            this.gc.strokeOval(t.getHitX(last) * SCALE - r, t.getHitY(last) * SCALE - r, r * 2, r * 2);
         }
     }
 
     public void setCue(Optional<Cue> cue) {
         this.cue = cue;
+        this.dirty = true;
     }
 
     public Optional<Cue> getCue() {
@@ -235,18 +525,67 @@ public class Renderer extends AnimationTimer {
     }
 
     private void drawFPS(double dt) {
-        double fps = 1.0 / dt;
+        // the readout is averaged and only formatted a few times a second
+        this.fpsTime += dt;
+        this.fpsFrames++;
+
+        if (this.fpsTime >= FPS_REFRESH_INTERVAL) {
+            this.fpsText = String.format("%,.2f", this.fpsFrames / this.fpsTime) + " FPS";
+            this.fpsTime = 0;
+            this.fpsFrames = 0;
+
+            if (this.metricsOverlay) {
+                this.updateMetricsOverlay();
+            }
+        }
 
         // rendering text in JavaFX coordinate system
         this.gc.setTransform(this.fpsTrans);
         this.gc.setFill(Color.BLACK);
-        this.gc.fillText(String.format("%,.2f", fps) + " FPS", 0, 5);
+        this.gc.fillText(this.fpsText, 0, 5);
+    }
+
+    private void updateMetricsOverlay() {
+        for (Phase p : Phase.values()) {
+            Histogram h = this.metrics.getHistogram(p);
+
+            this.overlayLines[p.ordinal()] = String.format("%-14s p50 %6.2f  p99 %6.2f  max %6.2f ms",
+                    p.name(), h.getPercentile(50) / 1000_000.0, h.getPercentile(99) / 1000_000.0, h.getMax() / 1000_000.0);
+        }
+
+        this.overlayLines[this.overlayLines.length - 1] = String.format("%d of %d frames over %.1f ms",
+                this.metrics.getBudgetMisses(), this.metrics.getFrames(), this.metrics.getBudgetMillis());
+    }
+
+    private void drawMetricsOverlay() {
+        if (!this.metricsOverlay) {
+            return;
+        }
+
+        this.gc.setTransform(this.overlayTrans);
+        this.gc.setFill(Color.BLACK);
+
+        for (int i = 0; i < this.overlayLines.length; i++) {
+            this.gc.fillText(this.overlayLines[i], 0, i * 15);
+        }
     }
 
     private void drawMessages() {
-        // rendering text in JavaFX coordinate system
+        if (this.hudLayer == null) {
+            this.hudLayer = this.renderHudLayer();
+        }
+
         this.gc.setTransform(this.jfxCoords);
-        this.gc.setFill(Color.BLACK);
+        this.gc.drawImage(this.hudLayer, 0, 0);
+    }
+
+    // messages and scores only change through the setters, which drop the layer
+    private WritableImage renderHudLayer() {
+        Canvas layer = new Canvas(this.sceneWidth, this.sceneHeight);
+        GraphicsContext layerGc = layer.getGraphicsContext2D();
+
+        // rendering text in JavaFX coordinate system
+        layerGc.setFill(Color.BLACK);
 
         Affine actionMsgTrans = new Affine(this.jfxCoords);
         Affine strikeMsgTrans = new Affine(this.jfxCoords);
@@ -270,24 +609,29 @@ public class Renderer extends AnimationTimer {
         player2ScoreTrans.appendTranslation(this.centerX + 300, this.sceneHeight - 100);
         player2ScoreTrans.appendScale(5, 5);
 
-        this.gc.setTransform(actionMsgTrans);
-        this.gc.fillText(this.actionMessage, 0, 0);
+        layerGc.setTransform(actionMsgTrans);
+        layerGc.fillText(this.actionMessage, 0, 0);
+
+        layerGc.setTransform(strikeMsgTrans);
+        layerGc.fillText(this.strikeMessage, 0, 0);
 
-        this.gc.setTransform(strikeMsgTrans);
-        this.gc.fillText(this.strikeMessage, 0, 0);
+        layerGc.setTransform(foulMsgTrans);
+        layerGc.fillText(this.foulMessage, 0, 0);
 
-        this.gc.setTransform(foulMsgTrans);
-        this.gc.fillText(this.foulMessage, 0, 0);
+        layerGc.setTransform(player1ScoreTrans);
+        layerGc.fillText(String.format("Player 1 score: %d", this.player1Score), 0, 0);
 
-        this.gc.setTransform(player1ScoreTrans);
-        this.gc.fillText(String.format("Player 1 score: %d", this.player1Score), 0, 0);
+        layerGc.setTransform(player2ScoreTrans);
+        layerGc.fillText(String.format("Player 2 score: %d", this.player2Score), 0, 0);
 
-        this.gc.setTransform(player2ScoreTrans);
-        this.gc.fillText(String.format("Player 2 score: %d", this.player2Score), 0, 0);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        return layer.snapshot(parameters, null);
     }
 
-    private void renderCushion(Polygon p) {
-        this.gc.setFill(Color.BROWN);
+    private void renderCushion(GraphicsContext gc, Polygon p) {
+        gc.setFill(Color.BROWN);
 
         Vector2[] vs = p.getVertices();
 
@@ -298,14 +642,12 @@ public class Renderer extends AnimationTimer {
             i++;
         }
 
-        Affine cushionTrans = new Affine(this.poolCoords);
-        this.gc.setTransform(cushionTrans);
-
-        this.gc.fillPolygon(xsBuffer, ysBuffer, vs.length);
+        gc.setTransform(this.poolCoords);
+        gc.fillPolygon(xsBuffer, ysBuffer, vs.length);
     }
 
-    private void renderPocket(Circle c) {
-        this.gc.setFill(Color.BLACK);
+    private void renderPocket(GraphicsContext gc, Circle c) {
+        gc.setFill(Color.BLACK);
 
         double r = c.getRadius() * SCALE;
         double d = r * 2;
@@ -315,11 +657,11 @@ public class Renderer extends AnimationTimer {
         Affine pocketTrans = new Affine(this.poolCoords);
         pocketTrans.appendTranslation(x, y);
 
-        this.gc.setTransform(pocketTrans);
+        gc.setTransform(pocketTrans);
 
         // center of physics circle is in the center
         // javafx draws ovals from top left corner
-        this.gc.fillOval(-r, -r, d, d);
+        gc.fillOval(-r, -r, d, d);
     }
 
 
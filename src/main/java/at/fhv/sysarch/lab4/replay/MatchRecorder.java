@@ -0,0 +1,83 @@
+package at.fhv.sysarch.lab4.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import at.fhv.sysarch.lab4.physics.EngineType;
+import org.dyn4j.geometry.Vector2;
+
+// Appends matches to an archive: the seed the rack was shuffled with, the
+// engine and the shots as they were played. Together with the fixed physics
+// step this is enough to replay a match exactly, see ReplayPlayer.
+public class MatchRecorder implements AutoCloseable {
+    private final DataOutputStream out;
+    private final EngineType engine;
+    private long matchStart;
+
+    public MatchRecorder(Path file, EngineType engine) throws IOException {
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        this.engine = engine;
+
+        // matches of another version can't be appended to an archive
+        if (!newFile) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                if (in.readInt() != ReplayFormat.MAGIC) {
+                    throw new IOException(file + " is not a match archive");
+                }
+
+                short version = in.readShort();
+                if (version != ReplayFormat.VERSION) {
+                    throw new IOException("Can't append to an archive of version " + version);
+                }
+            }
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+
+        if (newFile) {
+            out.writeInt(ReplayFormat.MAGIC);
+            out.writeShort(ReplayFormat.VERSION);
+        }
+    }
+
+    public void startMatch(long seed) {
+        matchStart = System.currentTimeMillis();
+
+        try {
+            out.writeByte(ReplayFormat.MATCH);
+            out.writeLong(seed);
+            out.writeLong(matchStart);
+            out.writeByte(engine.ordinal());
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // start and unscaled force of the cue IN WORLD COORDINATES
+    public void recordShot(Vector2 start, Vector2 force) {
+        try {
+            out.writeByte(ReplayFormat.SHOT);
+            out.writeInt((int) (System.currentTimeMillis() - matchStart));
+            out.writeDouble(start.x);
+            out.writeDouble(start.y);
+            out.writeDouble(force.x);
+            out.writeDouble(force.y);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
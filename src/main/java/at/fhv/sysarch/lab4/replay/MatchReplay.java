@@ -0,0 +1,37 @@
+package at.fhv.sysarch.lab4.replay;
+
+import java.util.List;
+
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import at.fhv.sysarch.lab4.simulation.SimulationResult;
+
+public class MatchReplay {
+    private final List<SimulationResult> results;
+    private final int player1Score;
+    private final int player2Score;
+    private final Snapshot finalState;
+
+    public MatchReplay(List<SimulationResult> results, int player1Score, int player2Score, Snapshot finalState) {
+        this.results = List.copyOf(results);
+        this.player1Score = player1Score;
+        this.player2Score = player2Score;
+        this.finalState = finalState;
+    }
+
+    // the outcome of every recorded shot, in the order they were played
+    public List<SimulationResult> getResults() {
+        return results;
+    }
+
+    public int getPlayer1Score() {
+        return player1Score;
+    }
+
+    public int getPlayer2Score() {
+        return player2Score;
+    }
+
+    public Snapshot getFinalState() {
+        return finalState;
+    }
+}
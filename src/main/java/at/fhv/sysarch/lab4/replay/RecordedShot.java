@@ -0,0 +1,22 @@
+package at.fhv.sysarch.lab4.replay;
+
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+public class RecordedShot {
+    private final int time;
+    private final Shot shot;
+
+    public RecordedShot(int time, Shot shot) {
+        this.time = time;
+        this.shot = shot;
+    }
+
+    // milliseconds since the start of the match
+    public int getTime() {
+        return time;
+    }
+
+    public Shot getShot() {
+        return shot;
+    }
+}
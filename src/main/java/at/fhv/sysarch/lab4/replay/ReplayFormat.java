@@ -0,0 +1,25 @@
+package at.fhv.sysarch.lab4.replay;
+
+// Layout of a match archive, all values big endian:
+//
+//   header: int MAGIC, short VERSION
+//   match:  byte MATCH, long seed, long start (epoch millis),
+//           byte engine (ordinal of EngineType)
+//   shot:   byte SHOT, int time since match start (millis),
+//           double startX, double startY, double forceX, double forceY
+//
+// Matches are appended one after the other, each followed by its shots.
+final class ReplayFormat {
+    static final int MAGIC = 0x42494C4C; // "BILL"
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    static final byte MATCH = 1;
+    static final byte SHOT = 2;
+
+    static final int MATCH_SIZE = Long.BYTES * 2 + Byte.BYTES;
+    static final int SHOT_SIZE = Integer.BYTES + Double.BYTES * 4;
+
+    private ReplayFormat() {
+    }
+}
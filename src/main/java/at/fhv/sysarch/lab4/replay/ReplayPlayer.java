@@ -0,0 +1,149 @@
+package at.fhv.sysarch.lab4.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.physics.EngineType;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.simulation.Shot;
+import at.fhv.sysarch.lab4.simulation.SimulationResult;
+import at.fhv.sysarch.lab4.simulation.Simulator;
+
+// Reads a match archive written by MatchRecorder. The file is memory mapped
+// and only the offsets of the matches are indexed up front, so even large
+// archives open instantly. Matches are replayed headless in the Simulator,
+// on the engine they were played with.
+public class ReplayPlayer {
+    private final MappedByteBuffer buffer;
+    private final List<Integer> matchOffsets = new ArrayList<>();
+    private final List<Integer> shotCounts = new ArrayList<>();
+
+    public ReplayPlayer(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < ReplayFormat.HEADER_SIZE || buffer.getInt(0) != ReplayFormat.MAGIC) {
+            throw new IOException(file + " is not a match archive");
+        }
+
+        if (buffer.getShort(Integer.BYTES) != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported archive version " + buffer.getShort(Integer.BYTES));
+        }
+
+        this.index();
+    }
+
+    public int getMatchCount() {
+        return matchOffsets.size();
+    }
+
+    public long getSeed(int match) {
+        return buffer.getLong(matchOffsets.get(match));
+    }
+
+    // epoch millis
+    public long getStartTime(int match) {
+        return buffer.getLong(matchOffsets.get(match) + Long.BYTES);
+    }
+
+    public EngineType getEngine(int match) {
+        int engine = buffer.get(matchOffsets.get(match) + Long.BYTES * 2);
+
+        if (engine < 0 || engine >= EngineType.values().length) {
+            throw new IllegalStateException("Unknown engine " + engine + " in match " + match);
+        }
+
+        return EngineType.values()[engine];
+    }
+
+    public List<RecordedShot> getShots(int match) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(matchOffsets.get(match) + ReplayFormat.MATCH_SIZE);
+
+        List<RecordedShot> shots = new ArrayList<>(shotCounts.get(match));
+
+        for (int i = 0; i < shotCounts.get(match); i++) {
+            in.get(); // record type, always SHOT
+            int time = in.getInt();
+            shots.add(new RecordedShot(time, new Shot(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble())));
+        }
+
+        return shots;
+    }
+
+    // plays the match again with the fixed physics step the game uses, scores
+    // are tracked with the same rules as Game
+    public MatchReplay replay(int match) {
+        // the game steps every engine with the same fixed step
+        Simulator simulator = new Simulator(getSeed(match), getEngine(match).create(), Physics.DEFAULT_STEP);
+        List<SimulationResult> results = new ArrayList<>();
+
+        Game.Player player = Game.Player.PLAYER_ONE;
+        int player1Score = 0;
+        int player2Score = 0;
+
+        for (RecordedShot shot : getShots(match)) {
+            SimulationResult result = simulator.shoot(shot.getShot());
+            results.add(result);
+
+            // missing the white ball doesn't count as a shot in Game
+            if (result.getStruckBall() == null) {
+                continue;
+            }
+
+            if (player == Game.Player.PLAYER_ONE) {
+                player1Score += result.getScoreDelta();
+            } else {
+                player2Score += result.getScoreDelta();
+            }
+
+            if (!result.isTurnKept()) {
+                player = player.getOpponent();
+            }
+        }
+
+        return new MatchReplay(results, player1Score, player2Score, simulator.getPhysics().snapshot());
+    }
+
+    private void index() {
+        ByteBuffer in = buffer.duplicate();
+        in.position(ReplayFormat.HEADER_SIZE);
+
+        try {
+            while (in.hasRemaining()) {
+                byte type = in.get();
+
+                if (type == ReplayFormat.MATCH) {
+                    if (in.remaining() < ReplayFormat.MATCH_SIZE) {
+                        break;
+                    }
+
+                    matchOffsets.add(in.position());
+                    shotCounts.add(0);
+                    in.position(in.position() + ReplayFormat.MATCH_SIZE);
+                } else if (type == ReplayFormat.SHOT && !shotCounts.isEmpty()) {
+                    if (in.remaining() < ReplayFormat.SHOT_SIZE) {
+                        break;
+                    }
+
+                    int last = shotCounts.size() - 1;
+                    shotCounts.set(last, shotCounts.get(last) + 1);
+                    in.position(in.position() + ReplayFormat.SHOT_SIZE);
+                } else {
+                    throw new IllegalStateException("Corrupt match archive at offset " + (in.position() - 1));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // a record cut short by a crash while recording, ignore it
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package at.fhv.sysarch.lab4.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import at.fhv.sysarch.lab4.metrics.Histogram;
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+// Plays many matches on a MatchServer at the same time, every one with random
+// shots at the white ball, and measures the time from sending a shot until
+// its result arrived.
+public class LoadClient {
+    private final int port;
+    private final int matches;
+    private final int shotsPerMatch;
+    private final long seed;
+
+    private final AtomicLong shots = new AtomicLong();
+    private final AtomicInteger failedMatches = new AtomicInteger();
+    private final Histogram latency = new Histogram();
+
+    public LoadClient(int port, int matches, int shotsPerMatch, long seed) {
+        this.port = port;
+        this.matches = matches;
+        this.shotsPerMatch = shotsPerMatch;
+        this.seed = seed;
+    }
+
+    // plays all matches, returns once all of them are over
+    public void run() throws InterruptedException {
+        ExecutorService executor = MatchThreads.newPerMatchExecutor();
+
+        for (int i = 0; i < matches; i++) {
+            long matchSeed = seed + i;
+            executor.execute(() -> this.play(matchSeed));
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    public long getShots() {
+        return shots.get();
+    }
+
+    public int getFailedMatches() {
+        return failedMatches.get();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    private void play(long matchSeed) {
+        Random random = new Random(matchSeed);
+
+        try (Socket c = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(c.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(c.getOutputStream()))) {
+            c.setTcpNoDelay(true);
+
+            ByteBuffer sent = ByteBuffer.allocate(Math.max(Protocol.START_SIZE, Protocol.SHOT_SIZE));
+            ByteBuffer received = ByteBuffer.allocate(Protocol.STATE_SIZE);
+
+            sent.clear();
+            sent.put(Protocol.START).putLong(matchSeed);
+            Protocol.writeFrame(out, sent);
+            MatchState state = this.receive(in, received);
+
+            for (int i = 0; i < shotsPerMatch; i++) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double strength = 0.1 + random.nextDouble() * 0.9;
+                Shot shot = Shot.at(state.getWhiteBallX(), state.getWhiteBallY(), angle, strength);
+
+                long start = System.nanoTime();
+
+                sent.clear();
+                sent.put(Protocol.SHOT)
+                        .putDouble(shot.getStartX())
+                        .putDouble(shot.getStartY())
+                        .putDouble(shot.getForceX())
+                        .putDouble(shot.getForceY());
+                Protocol.writeFrame(out, sent);
+                state = this.receive(in, received);
+
+                latency.record(System.nanoTime() - start);
+                shots.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failedMatches.incrementAndGet();
+            System.err.println("Match failed: " + e.getMessage());
+        }
+    }
+
+    private MatchState receive(DataInputStream in, ByteBuffer buffer) throws IOException {
+        ByteBuffer message = Protocol.readFrame(in, buffer);
+
+        if (message == null) {
+            throw new EOFException("Server closed the match");
+        }
+
+        Protocol.expect(message, Protocol.STATE);
+
+        return MatchState.read(message);
+    }
+}
@@ -0,0 +1,154 @@
+package at.fhv.sysarch.lab4.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import at.fhv.sysarch.lab4.metrics.Histogram;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+// Hosts any number of matches on localhost, one per connection, see Protocol.
+// Every match is played on a thread of its own (see MatchThreads) which
+// blocks on the connection until the next shot arrives.
+public class MatchServer implements Closeable {
+    private final static int BACKLOG = 256;
+
+    private final int port;
+    private final Supplier<PhysicsEngine> engines;
+    private final double step;
+    private final ExecutorService matches = MatchThreads.newPerMatchExecutor();
+
+    private final AtomicInteger activeMatches = new AtomicInteger();
+    private final AtomicInteger peakMatches = new AtomicInteger();
+    private final AtomicLong playedMatches = new AtomicLong();
+    private final AtomicLong shots = new AtomicLong();
+    // from receiving a shot until its result was sent
+    private final Histogram latency = new Histogram();
+
+    private ServerSocket socket;
+
+    // port 0 picks a free port, see getPort
+    public MatchServer(int port, Supplier<PhysicsEngine> engines, double step) {
+        this.port = port;
+        this.engines = engines;
+        this.step = step;
+    }
+
+    public void start() throws IOException {
+        socket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+
+        Thread acceptor = new Thread(this::accept, "match-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public boolean isVirtualThreads() {
+        return MatchThreads.isVirtual();
+    }
+
+    public int getActiveMatches() {
+        return activeMatches.get();
+    }
+
+    // most matches at the same time since the last reset
+    public int getPeakMatches() {
+        return peakMatches.get();
+    }
+
+    public void resetPeakMatches() {
+        peakMatches.set(activeMatches.get());
+    }
+
+    public long getPlayedMatches() {
+        return playedMatches.get();
+    }
+
+    public long getShots() {
+        return shots.get();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        matches.shutdownNow();
+    }
+
+    private void accept() {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                matches.execute(() -> this.serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Accepting a match failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        int active = activeMatches.incrementAndGet();
+        peakMatches.accumulateAndGet(active, Math::max);
+        playedMatches.incrementAndGet();
+
+        try (Socket c = connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(c.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(c.getOutputStream()))) {
+            c.setTcpNoDelay(true);
+
+            ByteBuffer received = ByteBuffer.allocate(Math.max(Protocol.START_SIZE, Protocol.SHOT_SIZE));
+            ByteBuffer sent = ByteBuffer.allocate(Protocol.STATE_SIZE);
+
+            ByteBuffer message = Protocol.readFrame(in, received);
+            if (message == null) {
+                return;
+            }
+
+            Protocol.expect(message, Protocol.START);
+            ServerMatch match = new ServerMatch(message.getLong(), engines.get(), step);
+            this.send(out, sent, match.getState());
+
+            while ((message = Protocol.readFrame(in, received)) != null) {
+                long start = System.nanoTime();
+
+                Protocol.expect(message, Protocol.SHOT);
+                Shot shot = new Shot(message.getDouble(), message.getDouble(), message.getDouble(), message.getDouble());
+                this.send(out, sent, match.shoot(shot));
+
+                latency.record(System.nanoTime() - start);
+                shots.incrementAndGet();
+            }
+        } catch (IOException e) {
+            // only this match is over
+            System.err.println("Match ended: " + e.getMessage());
+        } finally {
+            activeMatches.decrementAndGet();
+        }
+    }
+
+    private void send(DataOutputStream out, ByteBuffer buffer, MatchState state) throws IOException {
+        buffer.clear();
+        state.write(buffer);
+        Protocol.writeFrame(out, buffer);
+    }
+}
@@ -0,0 +1,102 @@
+package at.fhv.sysarch.lab4.server;
+
+import java.nio.ByteBuffer;
+
+import at.fhv.sysarch.lab4.game.Game;
+
+// the state of a match after a shot, as sent to the client
+public class MatchState {
+    private final int shot;
+    private final boolean ballHit;
+    private final Game.Player currentPlayer;
+    private final int player1Score;
+    private final int player2Score;
+    private final double whiteBallX;
+    private final double whiteBallY;
+    private final int ballsOnTable;
+    private final int steps;
+    // time the server took for the shot
+    private final long nanos;
+
+    public MatchState(int shot, boolean ballHit, Game.Player currentPlayer, int player1Score, int player2Score,
+                      double whiteBallX, double whiteBallY, int ballsOnTable, int steps, long nanos) {
+        this.shot = shot;
+        this.ballHit = ballHit;
+        this.currentPlayer = currentPlayer;
+        this.player1Score = player1Score;
+        this.player2Score = player2Score;
+        this.whiteBallX = whiteBallX;
+        this.whiteBallY = whiteBallY;
+        this.ballsOnTable = ballsOnTable;
+        this.steps = steps;
+        this.nanos = nanos;
+    }
+
+    void write(ByteBuffer out) {
+        out.put(Protocol.STATE)
+                .putInt(shot)
+                .put((byte) (ballHit ? 1 : 0))
+                .put((byte) currentPlayer.ordinal())
+                .putInt(player1Score)
+                .putInt(player2Score)
+                .putDouble(whiteBallX)
+                .putDouble(whiteBallY)
+                .putInt(ballsOnTable)
+                .putInt(steps)
+                .putLong(nanos);
+    }
+
+    static MatchState read(ByteBuffer in) {
+        return new MatchState(
+                in.getInt(),
+                in.get() != 0,
+                Game.Player.values()[in.get()],
+                in.getInt(),
+                in.getInt(),
+                in.getDouble(),
+                in.getDouble(),
+                in.getInt(),
+                in.getInt(),
+                in.getLong());
+    }
+
+    public int getShot() {
+        return shot;
+    }
+
+    public boolean isBallHit() {
+        return ballHit;
+    }
+
+    public Game.Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getPlayer1Score() {
+        return player1Score;
+    }
+
+    public int getPlayer2Score() {
+        return player2Score;
+    }
+
+    public double getWhiteBallX() {
+        return whiteBallX;
+    }
+
+    public double getWhiteBallY() {
+        return whiteBallY;
+    }
+
+    public int getBallsOnTable() {
+        return ballsOnTable;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
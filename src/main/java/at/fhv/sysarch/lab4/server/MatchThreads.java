@@ -0,0 +1,33 @@
+package at.fhv.sysarch.lab4.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// One thread per match, blocking on the connection of the match. Virtual
+// threads where the JVM has them (Java 21 and later), which makes hundreds of
+// matches cheap; platform threads otherwise.
+final class MatchThreads {
+    private MatchThreads() {
+    }
+
+    static ExecutorService newPerMatchExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "match");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    static boolean isVirtual() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
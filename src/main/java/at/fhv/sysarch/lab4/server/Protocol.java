@@ -0,0 +1,88 @@
+package at.fhv.sysarch.lab4.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// The messages between MatchServer and its clients. Every message is a frame
+// of its length as int and the message itself, which starts with its type.
+// One connection is one match:
+//
+//   client                          server
+//   START  seed                 ->
+//                               <-  STATE  after shot 0
+//   SHOT   start x/y, force x/y ->
+//                               <-  STATE  after the balls came to rest
+//   ...
+//
+// Coordinates and forces are IN WORLD COORDINATES, the force as
+// Cue.getShotForce() delivers it.
+final class Protocol {
+    final static byte START = 1;
+    final static byte SHOT = 2;
+    final static byte STATE = 3;
+
+    final static int START_SIZE = 1 + 8;
+    final static int SHOT_SIZE = 1 + 4 * 8;
+    // type, shot, ball hit, player, scores, white ball, balls on table, steps, nanos
+    final static int STATE_SIZE = 1 + 4 + 1 + 1 + 2 * 4 + 2 * 8 + 4 + 4 + 8;
+
+    // frames larger than this are taken as a broken client
+    private final static int MAX_FRAME = 1024;
+
+    private Protocol() {
+    }
+
+    static void writeFrame(DataOutputStream out, ByteBuffer message) throws IOException {
+        out.writeInt(message.position());
+        out.write(message.array(), 0, message.position());
+        out.flush();
+    }
+
+    // the message with its type, without the length, or null if the other
+    // side closed the connection between two frames
+    static ByteBuffer readFrame(DataInputStream in, ByteBuffer buffer) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        if (length < 1 || length > MAX_FRAME || length > buffer.capacity()) {
+            throw new IOException("Invalid frame length " + length);
+        }
+
+        buffer.clear();
+        in.readFully(buffer.array(), 0, length);
+        buffer.limit(length);
+
+        return buffer;
+    }
+
+    // reads the type and makes sure the rest of the message can be read
+    static void expect(ByteBuffer message, byte type) throws IOException {
+        byte actual = message.get();
+
+        if (actual != type) {
+            throw new IOException("Expected message " + type + ", got " + actual);
+        }
+
+        if (message.limit() < size(type)) {
+            throw new IOException("Message " + type + " too short: " + message.limit() + " bytes");
+        }
+    }
+
+    private static int size(byte type) {
+        switch (type) {
+            case START:
+                return START_SIZE;
+            case SHOT:
+                return SHOT_SIZE;
+            default:
+                return STATE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package at.fhv.sysarch.lab4.server;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.game.HeadlessMatch;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+// A match of one connection, played on the thread of the connection. The
+// clients are sent the state of the match after every shot.
+class ServerMatch {
+    private final HeadlessMatch match;
+    private int shots = 0;
+
+    ServerMatch(long seed, PhysicsEngine physics, double step) {
+        this.match = new HeadlessMatch(seed, physics, step);
+    }
+
+    MatchState shoot(Shot shot) {
+        long start = System.nanoTime();
+        shots++;
+
+        // a hit ball is stepped at least once
+        int steps = match.shoot(shot);
+
+        return this.getState(steps > 0, steps, System.nanoTime() - start);
+    }
+
+    MatchState getState() {
+        return this.getState(false, 0, 0);
+    }
+
+    private MatchState getState(boolean ballHit, int steps, long nanos) {
+        PhysicsEngine physics = match.getPhysics();
+        Game game = match.getGame();
+        int ballsOnTable = 0;
+
+        for (Ball b : Ball.values()) {
+            if (physics.isOnTable(b)) {
+                ballsOnTable++;
+            }
+        }
+
+        return new MatchState(shots, ballHit, game.getCurrentPlayer(), game.getPlayer1Score(), game.getPlayer2Score(),
+                physics.getX(Ball.WHITE), physics.getY(Ball.WHITE), ballsOnTable, steps, nanos);
+    }
+}
@@ -0,0 +1,68 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+
+// a shot IN WORLD COORDINATES: the point where the cue starts and the
+// force vector as Cue.getShotForce() would deliver it (unscaled)
+public class Shot {
+    private final double startX;
+    private final double startY;
+    private final double forceX;
+    private final double forceY;
+
+    public Shot(double startX, double startY, double forceX, double forceY) {
+        this.startX = startX;
+        this.startY = startY;
+        this.forceX = forceX;
+        this.forceY = forceY;
+    }
+
+    // a shot on the ball at x/y in the given direction, the cue starts
+    // just behind the ball, within reach of the raycast in Physics.strike
+    public static Shot at(double x, double y, double angle, double strength) {
+        double dirX = Math.cos(angle);
+        double dirY = Math.sin(angle);
+        double offset = Ball.Constants.RADIUS + 0.02;
+
+        return new Shot(x - dirX * offset, y - dirY * offset, dirX * strength, dirY * strength);
+    }
+
+    public double getStartX() {
+        return startX;
+    }
+
+    public double getStartY() {
+        return startY;
+    }
+
+    public double getForceX() {
+        return forceX;
+    }
+
+    public double getForceY() {
+        return forceY;
+    }
+
+    public Vector2 getForce() {
+        return new Vector2(forceX, forceY);
+    }
+
+    public Optional<Ray> getRay() {
+        Vector2 direction = getForce();
+
+        if (!direction.isZero()) {
+            return Optional.of(new Ray(new Vector2(startX, startY), direction));
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Shot[start=(%.3f, %.3f), force=(%.3f, %.3f)]", startX, startY, forceX, forceY);
+    }
+}
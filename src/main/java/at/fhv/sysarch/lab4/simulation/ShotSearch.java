@@ -0,0 +1,173 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.physics.Snapshot;
+
+// Picks a shot for a computer player: candidate shots on the white ball are
+// simulated in parallel on copies of a snapshot of the current table, and
+// scored with the rules of Game. Whatever was found when the time budget
+// runs out is played.
+public class ShotSearch implements AutoCloseable {
+    public final static Duration DEFAULT_BUDGET = Duration.ofMillis(200);
+
+    private final static int DIRECTIONS = 72;
+    private final static double[] STRENGTHS = {0.15, 0.3, 0.5, 0.75, 1.0};
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final long seed;
+    private final Supplier<PhysicsEngine> engines;
+    private final double step;
+
+    public ShotSearch() {
+        this(Physics::new, Physics.DEFAULT_STEP);
+    }
+
+    // shots are tried on the same kind of engine with the same step as the
+    // game is played with, so they play out the same on the table
+    public ShotSearch(Supplier<PhysicsEngine> engines, double step) {
+        this(DEFAULT_BUDGET, Runtime.getRuntime().availableProcessors(), engines, step);
+    }
+
+    public ShotSearch(Duration budget, int parallelism, Supplier<PhysicsEngine> engines, double step) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.budgetNanos = budget.toNanos();
+        this.seed = System.nanoTime();
+        this.engines = engines;
+        this.step = step;
+    }
+
+    // must be called by the thread stepping the physics, the search itself
+    // runs on the pool and never touches the given world
+    public CompletableFuture<Shot> search(PhysicsEngine physics) {
+        long deadline = System.nanoTime() + budgetNanos;
+
+        Snapshot table = physics.snapshot();
+        List<Shot> candidates = candidates(table);
+        AtomicInteger next = new AtomicInteger();
+
+        // every worker takes the next candidate in order until all are done
+        // or the budget runs out, so the most promising ones are tried first
+        List<CompletableFuture<Candidate>> workers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            workers.add(CompletableFuture.supplyAsync(() -> searchBest(table, candidates, next, deadline), pool));
+        }
+
+        return CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> workers.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .max(Comparator.comparingDouble(Candidate::getValue))
+                        .map(Candidate::getShot)
+                        // nothing finished in time, at least hit the closest ball
+                        .orElse(candidates.get(0)));
+    }
+
+    private Candidate searchBest(Snapshot table, List<Shot> candidates, AtomicInteger next, long deadline) {
+        // every worker plays on its own table which is reset for each candidate
+        Simulator simulator = new Simulator(seed, engines.get(), step);
+        Candidate best = null;
+        int i;
+
+        while ((i = next.getAndIncrement()) < candidates.size() && System.nanoTime() - deadline < 0) {
+            Shot shot = candidates.get(i);
+
+            simulator.restore(table);
+            Optional<SimulationResult> result = simulator.shoot(shot, () -> System.nanoTime() - deadline > 0);
+
+            if (result.isPresent() && (best == null || value(result.get()) > best.getValue())) {
+                best = new Candidate(shot, value(result.get()));
+            }
+        }
+
+        return best;
+    }
+
+    private static double value(SimulationResult result) {
+        if (result.getStruckBall() == null) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        // keeping the turn is worth half a point
+        return result.getScoreDelta() + (result.isTurnKept() ? 0.5 : 0);
+    }
+
+    // shots aimed straight at each ball on the table go first, as they are the most
+    // promising ones if the budget runs out, then a sweep over all directions
+    private static List<Shot> candidates(Snapshot table) {
+        double whiteX = table.getX(Ball.WHITE);
+        double whiteY = table.getY(Ball.WHITE);
+
+        List<Ball> targets = new ArrayList<>();
+        for (Ball b : Ball.values()) {
+            if (!b.isWhite() && table.isOnTable(b)) {
+                targets.add(b);
+            }
+        }
+
+        targets.sort(Comparator.comparingDouble(b -> distance(table, b, whiteX, whiteY)));
+
+        List<Shot> candidates = new ArrayList<>();
+
+        for (Ball b : targets) {
+            double angle = Math.atan2(table.getY(b) - whiteY, table.getX(b) - whiteX);
+
+            for (double strength : STRENGTHS) {
+                candidates.add(Shot.at(whiteX, whiteY, angle, strength));
+            }
+        }
+
+        for (int i = 0; i < DIRECTIONS; i++) {
+            double angle = 2 * Math.PI * i / DIRECTIONS;
+
+            for (double strength : STRENGTHS) {
+                candidates.add(Shot.at(whiteX, whiteY, angle, strength));
+            }
+        }
+
+        return candidates;
+    }
+
+    private static double distance(Snapshot table, Ball b, double x, double y) {
+        double dx = table.getX(b) - x;
+        double dy = table.getY(b) - y;
+
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static class Candidate {
+        private final Shot shot;
+        private final double value;
+
+        Candidate(Shot shot, double value) {
+            this.shot = shot;
+            this.value = value;
+        }
+
+        Shot getShot() {
+            return shot;
+        }
+
+        double getValue() {
+            return value;
+        }
+    }
+}
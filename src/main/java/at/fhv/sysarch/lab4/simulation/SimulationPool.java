@@ -0,0 +1,69 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import at.fhv.sysarch.lab4.physics.AdaptiveStepper;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+
+// simulates many shots in parallel, every shot runs in its own Simulator and
+// thus its own physics engine, so the workers don't share any state
+public class SimulationPool implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final Supplier<PhysicsEngine> engines;
+    private final double step;
+    private boolean adaptive = false;
+
+    public SimulationPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SimulationPool(int parallelism) {
+        this(parallelism, Physics::new, Physics.DEFAULT_STEP);
+    }
+
+    public SimulationPool(int parallelism, Supplier<PhysicsEngine> engines, double step) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.engines = engines;
+        this.step = step;
+    }
+
+    // see Simulator.setAdaptiveStepper, with the step of the pool as the shortest step
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // simulates every shot on a freshly racked table, results are in the order of the shots
+    public List<SimulationResult> simulate(long seed, List<Shot> shots) {
+        try {
+            return pool.submit(() -> shots.parallelStream()
+                    .map(shot -> {
+                        Simulator simulator = new Simulator(seed, engines.get(), step);
+                        if (adaptive) {
+                            simulator.setAdaptiveStepper(AdaptiveStepper.forStep(step));
+                        }
+                        return simulator.shoot(shot);
+                    })
+                    .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
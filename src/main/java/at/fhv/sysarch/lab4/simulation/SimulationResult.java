@@ -0,0 +1,80 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.util.List;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Rules;
+import at.fhv.sysarch.lab4.game.ShotEvents;
+
+public class SimulationResult {
+    private final Ball struckBall;
+    private final List<Ball> pocketedBalls;
+    private final boolean whiteBallPocketed;
+    private final boolean ballsTouched;
+    private final int steps;
+    private final double simulatedTime;
+    private final int fouls;
+    private final int scoreDelta;
+    private final boolean turnKept;
+
+    // the outcome by the Rules, the events are not kept
+    public SimulationResult(Ball struckBall, List<Ball> pocketedBalls, ShotEvents shot, int steps, double simulatedTime) {
+        this.struckBall = struckBall;
+        this.pocketedBalls = List.copyOf(pocketedBalls);
+        this.whiteBallPocketed = shot.isWhitePocketed();
+        this.ballsTouched = shot.isWhiteTouched();
+        this.steps = steps;
+        this.simulatedTime = simulatedTime;
+        this.fouls = Rules.getFouls(shot);
+        this.scoreDelta = Rules.getScoreDelta(shot);
+        this.turnKept = Rules.isTurnKept(shot);
+    }
+
+    // the ball the cue hit first, null if the cue missed everything
+    public Ball getStruckBall() {
+        return struckBall;
+    }
+
+    public List<Ball> getPocketedBalls() {
+        return pocketedBalls;
+    }
+
+    public boolean isWhiteBallPocketed() {
+        return whiteBallPocketed;
+    }
+
+    public boolean isBallsTouched() {
+        return ballsTouched;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public double getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    public boolean isFoul() {
+        return fouls != 0;
+    }
+
+    // bit mask of Rules.FOUL_*
+    public int getFouls() {
+        return fouls;
+    }
+
+    public int getScoreDelta() {
+        return scoreDelta;
+    }
+
+    public boolean isTurnKept() {
+        return turnKept;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulationResult[struck=%s, pocketed=%s, whitePocketed=%b, touched=%b, steps=%d, time=%.2fs]",
+                struckBall, pocketedBalls, whiteBallPocketed, ballsTouched, steps, simulatedTime);
+    }
+}
@@ -0,0 +1,234 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Rack;
+import at.fhv.sysarch.lab4.game.Rules;
+import at.fhv.sysarch.lab4.game.ShotEvents;
+import at.fhv.sysarch.lab4.game.Table;
+import at.fhv.sysarch.lab4.physics.AdaptiveStepper;
+import at.fhv.sysarch.lab4.physics.BallPocketedListener;
+import at.fhv.sysarch.lab4.physics.BallsCollisionListener;
+import at.fhv.sysarch.lab4.physics.ObjectsRestListener;
+import at.fhv.sysarch.lab4.physics.Physics;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import org.dyn4j.geometry.Ray;
+
+import static at.fhv.sysarch.lab4.rendering.Renderer.SCALE;
+
+// Steps a physics engine without JavaFX or a Renderer: a shot is applied
+// the same way Game.onMouseReleased does and the engine is stepped as fast
+// as possible until it reports that all objects rest again.
+public class Simulator implements BallPocketedListener, ObjectsRestListener, BallsCollisionListener {
+    // give up on shots which did not come to rest within one minute
+    private final static double MAX_SIMULATED_TIME = 60.0;
+    private final static int CANCEL_CHECK_STEPS = 32;
+
+    private final PhysicsEngine physics;
+    private final Random random;
+    private final double step;
+    private final int maxSteps;
+
+    private final List<Ball> pocketedBalls = new ArrayList<>();
+    private final List<Ball> shotPocketedBalls = new ArrayList<>();
+    private boolean resting = true;
+    private final ShotEvents shot = new ShotEvents();
+    private double whiteBallX;
+    private double whiteBallY;
+    // the state the table came to rest in, every shot starts from it
+    private Snapshot restState;
+    private Optional<AdaptiveStepper> stepper = Optional.empty();
+
+    public Simulator(long seed) {
+        this(seed, Physics.DEFAULT_STEP);
+    }
+
+    public Simulator(long seed, double step) {
+        this(seed, new Physics(), step);
+    }
+
+    // e.g. an AnalyticPhysics, which can take much longer steps
+    public Simulator(long seed, PhysicsEngine physics, double step) {
+        this.physics = physics;
+        this.random = new Random(seed);
+        this.step = step;
+        this.maxSteps = (int) Math.ceil(MAX_SIMULATED_TIME / step);
+
+        this.physics.getEvents().addBallPocketedListener(this);
+        this.physics.getEvents().addObjectsRestListener(this);
+        this.physics.getEvents().addBallsCollisionListener(this);
+
+        this.initWorld();
+    }
+
+    // a table in the state of the snapshot, e.g. to try shots on the current table
+    public Simulator(long seed, Snapshot snapshot) {
+        this(seed);
+        this.restore(snapshot);
+    }
+
+    // steps by the speed of the balls instead of the fixed step, which then
+    // is the shortest one; the outcome of a shot differs slightly from the game
+    public void setAdaptiveStepper(AdaptiveStepper stepper) {
+        this.stepper = Optional.of(stepper);
+    }
+
+    public PhysicsEngine getPhysics() {
+        return physics;
+    }
+
+    // puts all balls back on the table, racked as at the start of a game
+    public void reset() {
+        pocketedBalls.clear();
+
+        List<Ball> balls = new ArrayList<>();
+        for (Ball b : Ball.values()) {
+            if (b != Ball.WHITE) {
+                balls.add(b);
+            }
+        }
+
+        this.placeBalls(balls);
+        this.placeWhiteBall(Table.Constants.WIDTH * 0.25, 0);
+        this.restState = physics.snapshot();
+    }
+
+    public void restore(Snapshot snapshot) {
+        physics.restore(snapshot);
+        pocketedBalls.clear();
+
+        for (Ball b : Ball.values()) {
+            if (!b.isWhite() && !snapshot.isOnTable(b)) {
+                pocketedBalls.add(b);
+            }
+        }
+
+        this.restState = snapshot;
+    }
+
+    public SimulationResult shoot(Shot shot) {
+        return this.shoot(shot, () -> false).get();
+    }
+
+    // stops simulating as soon as cancelled returns true, the table is left
+    // in an undefined state then and no result is returned
+    public Optional<SimulationResult> shoot(Shot shot, BooleanSupplier cancelled) {
+        shotPocketedBalls.clear();
+        this.shot.reset();
+
+        // same as Game.strike: start from exactly the state the table came to rest in
+        physics.restore(restState);
+
+        Ball struckBall = null;
+        Optional<Ray> ray = shot.getRay();
+
+        if (ray.isPresent()) {
+            struckBall = physics.strike(ray.get(), shot.getForce().multiply(SCALE)).orElse(null);
+        }
+
+        if (struckBall != null) {
+            this.shot.struck(struckBall);
+        }
+
+        int steps = 0;
+        double time = 0;
+
+        if (struckBall != null) {
+            whiteBallX = physics.getX(Ball.WHITE);
+            whiteBallY = physics.getY(Ball.WHITE);
+
+            // the engine reports movement during the first step and rest once
+            // everything stopped again
+            resting = false;
+
+            while (!resting && steps < maxSteps) {
+                double dt = stepper.isPresent() ? stepper.get().next(physics.getMaxSpeed()) : step;
+                physics.step(dt);
+                time += dt;
+                steps++;
+
+                if (steps % CANCEL_CHECK_STEPS == 0 && cancelled.getAsBoolean()) {
+                    return Optional.empty();
+                }
+            }
+        }
+
+        return Optional.of(new SimulationResult(
+                struckBall, shotPocketedBalls, this.shot, steps, time));
+    }
+
+    private void initWorld() {
+        List<Ball> balls = new ArrayList<>();
+
+        for (Ball b : Ball.values()) {
+            if (b != Ball.WHITE) {
+                balls.add(b);
+            }
+        }
+
+        this.placeBalls(balls);
+        this.placeWhiteBall(Table.Constants.WIDTH * 0.25, 0);
+
+        this.restState = physics.snapshot();
+    }
+
+    private void placeBalls(List<Ball> balls) {
+        Collections.shuffle(balls, random);
+        Rack.place(balls, physics);
+    }
+
+    private void placeWhiteBall(double x, double y) {
+        physics.placeBall(Ball.WHITE, x, y);
+    }
+
+    private void rerack() {
+        this.placeBalls(new ArrayList<>(pocketedBalls));
+        pocketedBalls.clear();
+    }
+
+    @Override
+    public boolean onBallPocketed(Ball b) {
+        shot.pocketed(b);
+
+        if (!b.isWhite()) {
+            pocketedBalls.add(b);
+            shotPocketedBalls.add(b);
+            physics.removeBall(b);
+        }
+
+        return true;
+    }
+
+    @Override
+    public void onEndAllObjectsRest() {
+        resting = false;
+    }
+
+    @Override
+    public void onStartAllObjectsRest() {
+        resting = true;
+
+        // same clean up as Game.onStartAllObjectsRest
+        if (pocketedBalls.size() >= Rules.RERACK_POCKETED) {
+            this.rerack();
+        }
+
+        if (shot.isWhitePocketed()) {
+            this.placeWhiteBall(whiteBallX, whiteBallY);
+        }
+
+        this.restState = physics.snapshot();
+    }
+
+    @Override
+    public void onBallsCollide(Ball b1, Ball b2) {
+        shot.collided(b1, b2);
+    }
+}
@@ -0,0 +1,39 @@
+package at.fhv.sysarch.lab4.simulation;
+
+import java.util.Random;
+
+import at.fhv.sysarch.lab4.game.Table;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+
+// Plays a few break shots on a throwaway world nobody sees, so dyn4j, the
+// contact listeners and the rules are already compiled by the JIT when the
+// first real shot is played instead of being interpreted during the break.
+public final class WarmUp {
+    public final static int DEFAULT_SHOTS = 4;
+
+    private WarmUp() {
+    }
+
+    // physics must be a fresh engine of the same kind the game plays with,
+    // it is useless afterwards; returns the number of simulated steps
+    public static long run(PhysicsEngine physics, double step, int shots, long seed) {
+        Simulator simulator = new Simulator(seed, physics, step);
+        Random random = new Random(seed);
+        long steps = 0;
+
+        for (int i = 0; i < shots; i++) {
+            simulator.reset();
+            steps += simulator.shoot(breakShot(random)).getSteps();
+        }
+
+        return steps;
+    }
+
+    // a full strength break into the rack with some spread
+    private static Shot breakShot(Random random) {
+        double angle = Math.PI + (random.nextDouble() - 0.5) * 0.05;
+        double strength = 0.8 + random.nextDouble() * 0.2;
+
+        return Shot.at(Table.Constants.WIDTH * 0.25, 0, angle, strength);
+    }
+}
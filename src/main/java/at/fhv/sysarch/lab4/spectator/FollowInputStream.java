@@ -0,0 +1,47 @@
+package at.fhv.sysarch.lab4.spectator;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+// Waits at the end of the stream for more to be written, like tail -f, for
+// spectators of a match which is still written to a file.
+public class FollowInputStream extends FilterInputStream {
+    private final static long POLL_MILLIS = 20;
+
+    public FollowInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b;
+        while ((b = super.read()) < 0) {
+            this.await();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        int n;
+        while ((n = super.read(buffer, offset, length)) <= 0) {
+            this.await();
+        }
+        return n;
+    }
+
+    private void await() throws IOException {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Stopped following the stream");
+        }
+    }
+}
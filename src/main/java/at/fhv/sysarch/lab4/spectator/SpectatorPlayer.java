@@ -0,0 +1,89 @@
+package at.fhv.sysarch.lab4.spectator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.GameView;
+import at.fhv.sysarch.lab4.physics.BallFrame;
+import at.fhv.sysarch.lab4.physics.BallFrames;
+
+// Plays a table stream in real time: the balls go to BallFrames like from a
+// PhysicsLoop, balls leaving or entering the table and the scores go to the view.
+// Meant to run on a thread of its own, the view is only called through its executor.
+public class SpectatorPlayer implements Runnable {
+    private final TableStreamDecoder decoder;
+    private final BallFrames frames;
+    private final GameView view;
+    private final Executor viewExecutor;
+
+    // what the view shows, only touched by the thread of the player
+    private final boolean[] shownOnTable = new boolean[Ball.values().length];
+
+    public SpectatorPlayer(TableStreamDecoder decoder, BallFrames frames, GameView view, Executor viewExecutor) {
+        this.decoder = decoder;
+        this.frames = frames;
+        this.view = view;
+        this.viewExecutor = viewExecutor;
+    }
+
+    @Override
+    public void run() {
+        long stepNanos = (long) (decoder.getPhysicsStep() * 1000_000_000.0);
+        long start = System.nanoTime();
+
+        try {
+            while (decoder.next()) {
+                // a spectator following a match late, e.g. waiting for the
+                // file, keeps up with the stream instead of replaying the wait
+                long wait = start + decoder.getStep() * stepNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    start -= wait;
+                }
+
+                this.publishFrame();
+                this.updateView();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void publishFrame() {
+        BallFrame frame = frames.getBack();
+
+        for (Ball b : Ball.values()) {
+            frame.set(b, decoder.getX(b), decoder.getY(b), decoder.isOnTable(b));
+        }
+        frame.setStep(decoder.getStep());
+
+        frames.publish();
+    }
+
+    private void updateView() {
+        for (Ball b : Ball.values()) {
+            boolean onTable = decoder.isOnTable(b);
+
+            if (onTable != shownOnTable[b.ordinal()]) {
+                shownOnTable[b.ordinal()] = onTable;
+                viewExecutor.execute(onTable ? () -> view.addBall(b) : () -> view.removeBall(b));
+            }
+        }
+
+        if (decoder.isScore()) {
+            int score1 = decoder.getPlayer1Score();
+            int score2 = decoder.getPlayer2Score();
+            String player = decoder.getCurrentPlayer().getName();
+
+            viewExecutor.execute(() -> {
+                view.setPlayer1Score(score1);
+                view.setPlayer2Score(score2);
+                view.setStrikeMessage("Next Strike: " + player);
+            });
+        }
+    }
+}
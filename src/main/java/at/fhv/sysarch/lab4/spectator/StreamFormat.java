@@ -0,0 +1,56 @@
+package at.fhv.sysarch.lab4.spectator;
+
+import at.fhv.sysarch.lab4.game.Table;
+
+// Layout of a table stream, all values big endian:
+//
+//   header:   int MAGIC, short VERSION, double physics step (seconds)
+//   keyframe: byte KEYFRAME, varint steps, short balls on table,
+//             short x, short y of every ball on the table,
+//             short score 1, short score 2, byte player
+//   delta:    byte DELTA, varint steps, short balls which moved,
+//             short x, short y of every ball which moved
+//   pocketed: byte POCKETED, varint steps, byte ball
+//   score:    byte SCORE, varint steps, short score 1, short score 2, byte player
+//
+// Steps are counted since the previous record. Balls are bit masks by the
+// ordinal of Ball, the balls of a record follow in the order of their ordinals.
+// Positions are unsigned 16 bit fixed point over the width and height of the
+// table, 0.04 mm by 0.02 mm. A ball in a delta is on the table (again).
+final class StreamFormat {
+    static final int MAGIC = 0x54424C53; // "TBLS"
+    static final short VERSION = 1;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final byte POCKETED = 3;
+    static final byte SCORE = 4;
+
+    private final static int MAX_POSITION = 0xFFFF;
+
+    private StreamFormat() {
+    }
+
+    static int quantizeX(double x) {
+        return quantize(x / Table.Constants.WIDTH);
+    }
+
+    static int quantizeY(double y) {
+        return quantize(y / Table.Constants.HEIGHT);
+    }
+
+    static double toX(int q) {
+        return ((double) q / MAX_POSITION - 0.5) * Table.Constants.WIDTH;
+    }
+
+    static double toY(int q) {
+        return ((double) q / MAX_POSITION - 0.5) * Table.Constants.HEIGHT;
+    }
+
+    // -0.5 to 0.5 of the table, balls in the pockets may be slightly outside
+    private static int quantize(double fraction) {
+        long q = Math.round((fraction + 0.5) * MAX_POSITION);
+
+        return (int) Math.max(0, Math.min(MAX_POSITION, q));
+    }
+}
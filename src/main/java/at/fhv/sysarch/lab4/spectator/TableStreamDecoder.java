@@ -0,0 +1,168 @@
+package at.fhv.sysarch.lab4.spectator;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Game;
+
+// Reads a table stream record by record and keeps the state of the table it
+// describes, see StreamFormat.
+public class TableStreamDecoder {
+    private final DataInputStream in;
+    private final double physicsStep;
+
+    private final double[] x = new double[Ball.values().length];
+    private final double[] y = new double[Ball.values().length];
+    private final boolean[] onTable = new boolean[Ball.values().length];
+    private int player1Score;
+    private int player2Score;
+    private Game.Player currentPlayer = Game.Player.PLAYER_ONE;
+
+    private long step = 0;
+    private byte recordType;
+    private Ball pocketedBall;
+
+    public TableStreamDecoder(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+
+        if (this.in.readInt() != StreamFormat.MAGIC) {
+            throw new IOException("Not a table stream");
+        }
+
+        short version = this.in.readShort();
+        if (version != StreamFormat.VERSION) {
+            throw new IOException("Unsupported table stream version " + version);
+        }
+
+        this.physicsStep = this.in.readDouble();
+    }
+
+    // reads the next record, false at the end of the stream
+    public boolean next() throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return false;
+        }
+
+        recordType = (byte) type;
+        step += this.readVarint();
+
+        switch (recordType) {
+            case StreamFormat.KEYFRAME:
+                int mask = in.readUnsignedShort();
+                for (Ball b : Ball.values()) {
+                    onTable[b.ordinal()] = false;
+                }
+                this.readPositions(mask);
+                this.readScore();
+                break;
+
+            case StreamFormat.DELTA:
+                this.readPositions(in.readUnsignedShort());
+                break;
+
+            case StreamFormat.POCKETED:
+                pocketedBall = Ball.values()[in.readUnsignedByte()];
+                onTable[pocketedBall.ordinal()] = false;
+                break;
+
+            case StreamFormat.SCORE:
+                this.readScore();
+                break;
+
+            default:
+                throw new IOException("Unknown record " + type);
+        }
+
+        return true;
+    }
+
+    public double getPhysicsStep() {
+        return physicsStep;
+    }
+
+    // physics steps since the start of the stream
+    public long getStep() {
+        return step;
+    }
+
+    public byte getRecordType() {
+        return recordType;
+    }
+
+    public boolean isKeyframe() {
+        return recordType == StreamFormat.KEYFRAME;
+    }
+
+    public boolean isScore() {
+        return recordType == StreamFormat.KEYFRAME || recordType == StreamFormat.SCORE;
+    }
+
+    // the ball of the last POCKETED record
+    public Ball getPocketedBall() {
+        return pocketedBall;
+    }
+
+    public double getX(Ball b) {
+        return x[b.ordinal()];
+    }
+
+    public double getY(Ball b) {
+        return y[b.ordinal()];
+    }
+
+    public boolean isOnTable(Ball b) {
+        return onTable[b.ordinal()];
+    }
+
+    public int getPlayer1Score() {
+        return player1Score;
+    }
+
+    public int getPlayer2Score() {
+        return player2Score;
+    }
+
+    public Game.Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    private void readPositions(int mask) throws IOException {
+        for (Ball b : Ball.values()) {
+            int i = b.ordinal();
+
+            if ((mask & (1 << i)) != 0) {
+                x[i] = StreamFormat.toX(in.readUnsignedShort());
+                y[i] = StreamFormat.toY(in.readUnsignedShort());
+                onTable[i] = true;
+            }
+        }
+    }
+
+    private void readScore() throws IOException {
+        player1Score = in.readShort();
+        player2Score = in.readShort();
+        currentPlayer = Game.Player.values()[in.readUnsignedByte()];
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated record");
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+}
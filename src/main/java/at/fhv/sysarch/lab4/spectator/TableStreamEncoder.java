@@ -0,0 +1,248 @@
+package at.fhv.sysarch.lab4.spectator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.physics.PhysicsEvent;
+import at.fhv.sysarch.lab4.physics.PhysicsEventListener;
+import at.fhv.sysarch.lab4.physics.PhysicsStepListener;
+
+// Writes the state of a table as a stream for spectators, see StreamFormat.
+// Positions are sampled every few steps, only balls which moved further than
+// the threshold since they were last sent are written. A resting table costs
+// an occasional keyframe, so spectators joining late see the table soon.
+//
+// Runs on the physics thread: registered with the event bus for the pockets
+// and with the PhysicsLoop for the steps.
+public class TableStreamEncoder implements PhysicsEventListener, PhysicsStepListener {
+    // 30 samples per second at the default step, spectators don't need more
+    public final static int DEFAULT_SAMPLE_STEPS = 8;
+    public final static double DEFAULT_THRESHOLD = 0.001;
+    // while balls move, the table is sent in full every 2 seconds at the default step
+    public final static int KEYFRAME_STEPS = 480;
+    // and every 10 seconds while it rests
+    public final static int IDLE_KEYFRAME_STEPS = 2400;
+
+    private final PhysicsEngine physics;
+    private final Game game;
+    private final DataOutputStream out;
+
+    private int sampleSteps = DEFAULT_SAMPLE_STEPS;
+    private double threshold = DEFAULT_THRESHOLD;
+
+    // the state the spectators know
+    private final double[] sentX = new double[Ball.values().length];
+    private final double[] sentY = new double[Ball.values().length];
+    private final boolean[] sentOnTable = new boolean[Ball.values().length];
+    // pocketed during the current shot, the white ball stays in the world
+    // until the table rests but is not on the table for the spectators
+    private final boolean[] pocketed = new boolean[Ball.values().length];
+    private int sentScore1;
+    private int sentScore2;
+    private Game.Player sentPlayer;
+
+    private long step = 0;
+    private long lastSampleStep = 0;
+    private long lastRecordStep = 0;
+    private long lastKeyframeStep = 0;
+    private boolean changedSinceKeyframe = false;
+
+    public TableStreamEncoder(PhysicsEngine physics, Game game, OutputStream out, double physicsStep) {
+        this.physics = physics;
+        this.game = game;
+        this.out = new DataOutputStream(out);
+
+        try {
+            this.out.writeInt(StreamFormat.MAGIC);
+            this.out.writeShort(StreamFormat.VERSION);
+            this.out.writeDouble(physicsStep);
+            this.writeKeyframe();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void setSampleSteps(int sampleSteps) {
+        this.sampleSteps = sampleSteps;
+    }
+
+    // in meters, balls moving less than this since they were sent are left out
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    // written so far, including the header
+    public long getBytes() {
+        return out.size();
+    }
+
+    @Override
+    public void onPhysicsEvent(PhysicsEvent e) {
+        // the game puts a pocketed white ball back once the table rests
+        if (e.getType() == PhysicsEvent.Type.OBJECTS_RESTING) {
+            Arrays.fill(pocketed, false);
+            return;
+        }
+
+        if (e.getType() != PhysicsEvent.Type.BALL_POCKETED) {
+            return;
+        }
+
+        pocketed[e.getBall().ordinal()] = true;
+
+        if (!sentOnTable[e.getBall().ordinal()]) {
+            return;
+        }
+
+        try {
+            this.writeRecordHeader(StreamFormat.POCKETED);
+            out.writeByte(e.getBall().ordinal());
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        sentOnTable[e.getBall().ordinal()] = false;
+        changedSinceKeyframe = true;
+    }
+
+    @Override
+    public void onStep(long loopStep) {
+        // the loop skips steps while the table rests, its count keeps the time
+        step = loopStep;
+
+        if (step - lastSampleStep < sampleSteps) {
+            return;
+        }
+        lastSampleStep = step;
+
+        try {
+            long sinceKeyframe = step - lastKeyframeStep;
+
+            if (sinceKeyframe >= IDLE_KEYFRAME_STEPS || (changedSinceKeyframe && sinceKeyframe >= KEYFRAME_STEPS)) {
+                this.writeKeyframe();
+            } else {
+                this.writeDelta();
+                this.writeScore();
+            }
+
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeKeyframe() throws IOException {
+        int mask = 0;
+        for (Ball b : Ball.values()) {
+            if (this.isOnTable(b)) {
+                mask |= 1 << b.ordinal();
+            }
+        }
+
+        this.writeRecordHeader(StreamFormat.KEYFRAME);
+        out.writeShort(mask);
+        this.writePositions(mask);
+
+        for (Ball b : Ball.values()) {
+            sentOnTable[b.ordinal()] = (mask & (1 << b.ordinal())) != 0;
+        }
+
+        sentScore1 = game.getPlayer1Score();
+        sentScore2 = game.getPlayer2Score();
+        sentPlayer = game.getCurrentPlayer();
+        out.writeShort(sentScore1);
+        out.writeShort(sentScore2);
+        out.writeByte(sentPlayer.ordinal());
+
+        lastKeyframeStep = step;
+        changedSinceKeyframe = false;
+    }
+
+    private void writeDelta() throws IOException {
+        int mask = 0;
+
+        for (Ball b : Ball.values()) {
+            int i = b.ordinal();
+
+            if (this.isOnTable(b) && (!sentOnTable[i]
+                    || Math.abs(physics.getX(b) - sentX[i]) > threshold
+                    || Math.abs(physics.getY(b) - sentY[i]) > threshold)) {
+                mask |= 1 << i;
+            }
+        }
+
+        if (mask == 0) {
+            return;
+        }
+
+        this.writeRecordHeader(StreamFormat.DELTA);
+        out.writeShort(mask);
+        this.writePositions(mask);
+
+        for (Ball b : Ball.values()) {
+            if ((mask & (1 << b.ordinal())) != 0) {
+                sentOnTable[b.ordinal()] = true;
+            }
+        }
+
+        changedSinceKeyframe = true;
+    }
+
+    private void writeScore() throws IOException {
+        int score1 = game.getPlayer1Score();
+        int score2 = game.getPlayer2Score();
+        Game.Player player = game.getCurrentPlayer();
+
+        if (score1 == sentScore1 && score2 == sentScore2 && player == sentPlayer) {
+            return;
+        }
+
+        this.writeRecordHeader(StreamFormat.SCORE);
+        out.writeShort(score1);
+        out.writeShort(score2);
+        out.writeByte(player.ordinal());
+
+        sentScore1 = score1;
+        sentScore2 = score2;
+        sentPlayer = player;
+        changedSinceKeyframe = true;
+    }
+
+    private boolean isOnTable(Ball b) {
+        return physics.isOnTable(b) && !pocketed[b.ordinal()];
+    }
+
+    private void writePositions(int mask) throws IOException {
+        for (Ball b : Ball.values()) {
+            int i = b.ordinal();
+
+            if ((mask & (1 << i)) != 0) {
+                sentX[i] = physics.getX(b);
+                sentY[i] = physics.getY(b);
+                out.writeShort(StreamFormat.quantizeX(sentX[i]));
+                out.writeShort(StreamFormat.quantizeY(sentY[i]));
+            }
+        }
+    }
+
+    private void writeRecordHeader(byte type) throws IOException {
+        out.writeByte(type);
+
+        // steps since the last record as varint, mostly a single byte
+        long steps = step - lastRecordStep;
+        while (steps >= 0x80) {
+            out.writeByte((int) (steps & 0x7F) | 0x80);
+            steps >>>= 7;
+        }
+        out.writeByte((int) steps);
+
+        lastRecordStep = step;
+    }
+}
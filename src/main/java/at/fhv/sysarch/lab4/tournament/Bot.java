@@ -0,0 +1,14 @@
+package at.fhv.sysarch.lab4.tournament;
+
+import java.util.Random;
+
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+// A strategy for one side of a tournament match. Every match creates its own
+// bots, so a bot may keep state, e.g. a physics engine to try shots on.
+@FunctionalInterface
+public interface Bot {
+    // the next shot on the table at rest, the white ball is where the table has it
+    Shot chooseShot(Snapshot table, Random random);
+}
@@ -0,0 +1,103 @@
+package at.fhv.sysarch.lab4.tournament;
+
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.game.Ball;
+import at.fhv.sysarch.lab4.physics.AnalyticPhysics;
+import at.fhv.sysarch.lab4.physics.Snapshot;
+import at.fhv.sysarch.lab4.simulation.Shot;
+import at.fhv.sysarch.lab4.simulation.SimulationResult;
+import at.fhv.sysarch.lab4.simulation.Simulator;
+
+// the bots a tournament can be played with
+public enum Bots {
+    // any direction with any strength
+    RANDOM,
+    // straight at the closest ball
+    NEAREST,
+    // tries shots at every ball on an AnalyticPhysics and plays the best one
+    GREEDY;
+
+    private final static double NEAREST_STRENGTH = 0.5;
+    private final static double[] GREEDY_STRENGTHS = {0.3, 0.6, 1.0};
+
+    public Bot create() {
+        switch (this) {
+            case NEAREST:
+                return (table, random) -> aimAt(table, nearest(table), NEAREST_STRENGTH);
+            case GREEDY:
+                return greedy();
+            default:
+                return (table, random) -> Shot.at(table.getX(Ball.WHITE), table.getY(Ball.WHITE),
+                        random.nextDouble() * 2 * Math.PI, 0.1 + random.nextDouble() * 0.9);
+        }
+    }
+
+    private static Bot greedy() {
+        Simulator simulator = new Simulator(0, new AnalyticPhysics(), AnalyticPhysics.DEFAULT_STEP);
+
+        return (table, random) -> {
+            Shot best = aimAt(table, nearest(table), NEAREST_STRENGTH);
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (Ball b : Ball.values()) {
+                if (b.isWhite() || !table.isOnTable(b)) {
+                    continue;
+                }
+
+                for (double strength : GREEDY_STRENGTHS) {
+                    Shot shot = aimAt(table, Optional.of(b), strength);
+
+                    simulator.restore(table);
+                    SimulationResult result = simulator.shoot(shot);
+                    // keeping the turn is worth half a point, as for ShotSearch
+                    double value = result.getStruckBall() == null
+                            ? Double.NEGATIVE_INFINITY
+                            : result.getScoreDelta() + (result.isTurnKept() ? 0.5 : 0);
+
+                    if (value > bestValue) {
+                        best = shot;
+                        bestValue = value;
+                    }
+                }
+            }
+
+            return best;
+        };
+    }
+
+    private static Optional<Ball> nearest(Snapshot table) {
+        double whiteX = table.getX(Ball.WHITE);
+        double whiteY = table.getY(Ball.WHITE);
+        Optional<Ball> nearest = Optional.empty();
+        double nearestDistance = Double.POSITIVE_INFINITY;
+
+        for (Ball b : Ball.values()) {
+            if (b.isWhite() || !table.isOnTable(b)) {
+                continue;
+            }
+
+            double dx = table.getX(b) - whiteX;
+            double dy = table.getY(b) - whiteY;
+            double distance = dx * dx + dy * dy;
+
+            if (distance < nearestDistance) {
+                nearest = Optional.of(b);
+                nearestDistance = distance;
+            }
+        }
+
+        return nearest;
+    }
+
+    private static Shot aimAt(Snapshot table, Optional<Ball> target, double strength) {
+        double whiteX = table.getX(Ball.WHITE);
+        double whiteY = table.getY(Ball.WHITE);
+        // an empty table only happens between racks, any direction will do
+        double angle = target
+                .map(b -> Math.atan2(table.getY(b) - whiteY, table.getX(b) - whiteX))
+                .orElse(Math.PI);
+
+        return Shot.at(whiteX, whiteY, angle, strength);
+    }
+}
@@ -0,0 +1,88 @@
+package at.fhv.sysarch.lab4.tournament;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import at.fhv.sysarch.lab4.game.Game;
+
+// one finished tournament match, as a line of the match CSV
+public class MatchResult {
+    static final String CSV_HEADER = "match,seed,player1,player2,winner,score1,score2,shots,shots1,shots2,fouls1,fouls2,racks,steps,millis,shots_per_second";
+
+    private final int match;
+    private final long seed;
+    private final Bots player1;
+    private final Bots player2;
+    private final int score1;
+    private final int score2;
+    private final int shots1;
+    private final int shots2;
+    private final int fouls1;
+    private final int fouls2;
+    private final int racks;
+    private final long steps;
+    private final long nanos;
+
+    MatchResult(int match, long seed, Bots player1, Bots player2, int score1, int score2,
+                int shots1, int shots2, int fouls1, int fouls2, int racks, long steps, long nanos) {
+        this.match = match;
+        this.seed = seed;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.score1 = score1;
+        this.score2 = score2;
+        this.shots1 = shots1;
+        this.shots2 = shots2;
+        this.fouls1 = fouls1;
+        this.fouls2 = fouls2;
+        this.racks = racks;
+        this.steps = steps;
+        this.nanos = nanos;
+    }
+
+    public int getMatch() {
+        return match;
+    }
+
+    public Bots getBot(Game.Player player) {
+        return player == Game.Player.PLAYER_ONE ? player1 : player2;
+    }
+
+    // empty for a draw
+    public Optional<Game.Player> getWinner() {
+        if (score1 == score2) {
+            return Optional.empty();
+        }
+
+        return Optional.of(score1 > score2 ? Game.Player.PLAYER_ONE : Game.Player.PLAYER_TWO);
+    }
+
+    public int getScore(Game.Player player) {
+        return player == Game.Player.PLAYER_ONE ? score1 : score2;
+    }
+
+    public int getFouls(Game.Player player) {
+        return player == Game.Player.PLAYER_ONE ? fouls1 : fouls2;
+    }
+
+    // of both players
+    public int getShots() {
+        return shots1 + shots2;
+    }
+
+    public int getShots(Game.Player player) {
+        return player == Game.Player.PLAYER_ONE ? shots1 : shots2;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    String toCsv() {
+        return String.format(Locale.ROOT, "%d,%d,%s,%s,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%.3f,%.1f",
+                match, seed, player1, player2,
+                getWinner().map(p -> p == Game.Player.PLAYER_ONE ? "player1" : "player2").orElse("draw"),
+                score1, score2, getShots(), shots1, shots2, fouls1, fouls2, racks, steps,
+                nanos / 1000_000.0, getShots() * 1000_000_000.0 / nanos);
+    }
+}
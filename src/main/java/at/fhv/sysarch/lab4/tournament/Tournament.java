@@ -0,0 +1,196 @@
+package at.fhv.sysarch.lab4.tournament;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+
+// Plays every pair of bots against each other, each pair a number of matches
+// with the bots taking turns at breaking. Matches run in parallel, every one
+// with its own Game and physics engine. A match is decided by its seed only,
+// so a tournament plays out the same on any number of threads.
+public class Tournament implements AutoCloseable {
+    public final static int DEFAULT_MAX_SHOTS = 500;
+
+    private final static String SUMMARY_HEADER = "bot,matches,wins,losses,draws,win_rate,avg_shots,foul_rate,shots_per_second";
+
+    private final ForkJoinPool pool;
+    private final Supplier<PhysicsEngine> engines;
+    private final double step;
+    private int maxShots = DEFAULT_MAX_SHOTS;
+
+    private List<MatchResult> results = List.of();
+    private long nanos;
+
+    public Tournament(int parallelism, Supplier<PhysicsEngine> engines, double step) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.engines = engines;
+        this.step = step;
+    }
+
+    public void setMaxShots(int maxShots) {
+        this.maxShots = maxShots;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public List<MatchResult> play(List<Bots> bots, int matchesPerPair, long seed) {
+        List<Integer> matches = new ArrayList<>();
+        List<Bots[]> pairings = new ArrayList<>();
+
+        for (int i = 0; i < bots.size(); i++) {
+            // a single bot plays against itself
+            for (int j = bots.size() == 1 ? i : i + 1; j < bots.size(); j++) {
+                for (int m = 0; m < matchesPerPair; m++) {
+                    matches.add(matches.size());
+                    pairings.add(m % 2 == 0
+                            ? new Bots[]{bots.get(i), bots.get(j)}
+                            : new Bots[]{bots.get(j), bots.get(i)});
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            results = pool.submit(() -> matches.parallelStream()
+                    .map(m -> {
+                        long matchSeed = seed + m;
+                        Bots[] pairing = pairings.get(m);
+
+                        return new TournamentMatch(matchSeed, engines.get(), step)
+                                .play(m, pairing[0], pairing[1], maxShots);
+                    })
+                    .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament failed", e.getCause());
+        }
+
+        nanos = System.nanoTime() - start;
+
+        return results;
+    }
+
+    // wall clock time of the last tournament
+    public long getNanos() {
+        return nanos;
+    }
+
+    public int getShots() {
+        return results.stream().mapToInt(MatchResult::getShots).sum();
+    }
+
+    // one line per match, in the order the matches were set up
+    public void writeMatches(Path file) {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(MatchResult.CSV_HEADER);
+
+            for (MatchResult result : results) {
+                out.println(result.toCsv());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // one line per bot and one for all matches: its wins and losses are those
+    // of player 1, who breaks, and its shots per second are those of the whole
+    // tournament on all threads
+    public void writeSummary(Path file) {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(SUMMARY_HEADER);
+
+            for (Bots bot : Bots.values()) {
+                Summary summary = new Summary();
+
+                for (MatchResult result : results) {
+                    for (Game.Player player : Game.Player.values()) {
+                        if (result.getBot(player) == bot) {
+                            summary.add(result, player);
+                        }
+                    }
+                }
+
+                if (summary.matches > 0) {
+                    out.println(summary.toCsv(bot.name(), summary.shots * 1000_000_000.0 / summary.nanos));
+                }
+            }
+
+            Summary all = new Summary();
+            for (MatchResult result : results) {
+                all.addMatch(result);
+            }
+            out.println(all.toCsv("all", this.getShots() * 1000_000_000.0 / nanos));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // the matches of one bot, as seen from its side of the table
+    private static class Summary {
+        private int matches;
+        private int wins;
+        private int losses;
+        // of the whole matches
+        private long shots;
+        private long nanos;
+        // of the summarized side
+        private long ownShots;
+        private long fouls;
+
+        void add(MatchResult result, Game.Player player) {
+            matches++;
+            shots += result.getShots();
+            nanos += result.getNanos();
+            ownShots += result.getShots(player);
+            fouls += result.getFouls(player);
+
+            if (result.getWinner().isPresent()) {
+                if (result.getWinner().get() == player) {
+                    wins++;
+                } else {
+                    losses++;
+                }
+            }
+        }
+
+        void addMatch(MatchResult result) {
+            this.add(result, Game.Player.PLAYER_ONE);
+            ownShots += result.getShots(Game.Player.PLAYER_TWO);
+            fouls += result.getFouls(Game.Player.PLAYER_TWO);
+        }
+
+        String toCsv(String bot, double shotsPerSecond) {
+            int draws = matches - wins - losses;
+
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.4f,%.1f,%.4f,%.1f",
+                    bot, matches, wins, losses, draws,
+                    (double) wins / matches,
+                    (double) shots / matches,
+                    ownShots == 0 ? 0 : (double) fouls / ownShots,
+                    shotsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package at.fhv.sysarch.lab4.tournament;
+
+import java.util.Random;
+
+import at.fhv.sysarch.lab4.game.Game;
+import at.fhv.sysarch.lab4.game.HeadlessMatch;
+import at.fhv.sysarch.lab4.physics.PhysicsEngine;
+import at.fhv.sysarch.lab4.simulation.Shot;
+
+// Two bots playing one match under the rules of Game, without renderer and
+// on the calling thread. The match is over once the table was cleared and
+// racked again, or after the maximum number of shots.
+class TournamentMatch {
+    private final HeadlessMatch headless;
+    private final Game game;
+    private final Random random;
+    private final long seed;
+
+    TournamentMatch(long seed, PhysicsEngine physics, double step) {
+        this.headless = new HeadlessMatch(seed, physics, step);
+        this.game = headless.getGame();
+        this.random = new Random(seed);
+        this.seed = seed;
+    }
+
+    MatchResult play(int match, Bots player1, Bots player2, int maxShots) {
+        long start = System.nanoTime();
+        Bot bot1 = player1.create();
+        Bot bot2 = player2.create();
+
+        int shots1 = 0;
+        int shots2 = 0;
+        int fouls1 = 0;
+        int fouls2 = 0;
+        long steps = 0;
+
+        while (game.getRacksCleared() == 0 && shots1 + shots2 < maxShots) {
+            Game.Player player = game.getCurrentPlayer();
+            Bot bot = player == Game.Player.PLAYER_ONE ? bot1 : bot2;
+
+            Shot shot = bot.chooseShot(game.getRestTable(), random);
+            if (player == Game.Player.PLAYER_ONE) {
+                shots1++;
+            } else {
+                shots2++;
+            }
+
+            // a cue which hits no ball is a lost shot, the game waits for
+            // another one; the rules are only applied once the table rests
+            int shotSteps = headless.shoot(shot);
+            steps += shotSteps;
+
+            if (shotSteps > 0 && headless.isAtRest() && game.getFouls() != 0) {
+                if (player == Game.Player.PLAYER_ONE) {
+                    fouls1++;
+                } else {
+                    fouls2++;
+                }
+            }
+        }
+
+        return new MatchResult(match, seed, player1, player2, game.getPlayer1Score(), game.getPlayer2Score(),
+                shots1, shots2, fouls1, fouls2, game.getRacksCleared(), steps, System.nanoTime() - start);
+    }
+}
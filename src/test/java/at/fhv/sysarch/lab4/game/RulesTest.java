@@ -0,0 +1,190 @@
+package at.fhv.sysarch.lab4.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RulesTest {
+    // the white ball struck and touching a regular ball, pocketing the given ones
+    private static ShotEvents cleanShot(Ball... pocketed) {
+        ShotEvents shot = new ShotEvents();
+        shot.struck(Ball.WHITE);
+        shot.collided(Ball.WHITE, Ball.ONE);
+
+        for (Ball b : pocketed) {
+            shot.pocketed(b);
+        }
+
+        return shot;
+    }
+
+    @Test
+    void cleanShotIsNoFoul() {
+        assertEquals(0, Rules.getFouls(cleanShot()));
+        assertEquals(0, Rules.getFouls(cleanShot(Ball.ONE)));
+    }
+
+    @Test
+    void directHitIsFoul() {
+        ShotEvents shot = new ShotEvents();
+        shot.struck(Ball.THREE);
+        shot.collided(Ball.THREE, Ball.WHITE);
+
+        assertEquals(Rules.FOUL_DIRECT_HIT, Rules.getFouls(shot));
+    }
+
+    @Test
+    void whitePocketedIsFoul() {
+        assertEquals(Rules.FOUL_WHITE_POCKETED, Rules.getFouls(cleanShot(Ball.WHITE)));
+    }
+
+    @Test
+    void noContactIsFoul() {
+        ShotEvents shot = new ShotEvents();
+        shot.struck(Ball.WHITE);
+        shot.collided(Ball.ONE, Ball.TWO);
+
+        assertEquals(Rules.FOUL_NO_CONTACT, Rules.getFouls(shot));
+    }
+
+    @Test
+    void foulsAreCombined() {
+        ShotEvents shot = new ShotEvents();
+        shot.struck(Ball.FIVE);
+        shot.pocketed(Ball.WHITE);
+
+        assertEquals(Rules.FOUL_DIRECT_HIT | Rules.FOUL_WHITE_POCKETED | Rules.FOUL_NO_CONTACT, Rules.getFouls(shot));
+    }
+
+    @Test
+    void everyPocketedBallScores() {
+        assertEquals(0, Rules.getScoreDelta(cleanShot()));
+        assertEquals(2, Rules.getScoreDelta(cleanShot(Ball.ONE, Ball.NINE)));
+    }
+
+    @Test
+    void pocketedDuringFoulStillScores() {
+        // two balls score, the foul costs one point
+        assertEquals(1, Rules.getScoreDelta(cleanShot(Ball.ONE, Ball.NINE, Ball.WHITE)));
+        assertEquals(-1, Rules.getScoreDelta(cleanShot(Ball.WHITE)));
+    }
+
+    @Test
+    void turnIsKeptAfterCleanPocket() {
+        GameState state = new GameState();
+        Rules.apply(state, cleanShot(Ball.TWO), state);
+
+        assertTrue(Rules.isTurnKept(cleanShot(Ball.TWO)));
+        assertEquals(Game.Player.PLAYER_ONE, state.getPlayer());
+        assertFalse(state.isPlayerSwitched());
+        assertEquals(1, state.getPlayer1Score());
+        assertEquals(0, state.getPlayer2Score());
+    }
+
+    @Test
+    void turnPassesWithoutPocket() {
+        GameState state = new GameState();
+        Rules.apply(state, cleanShot(), state);
+
+        assertFalse(Rules.isTurnKept(cleanShot()));
+        assertEquals(Game.Player.PLAYER_TWO, state.getPlayer());
+        assertTrue(state.isPlayerSwitched());
+        assertEquals(0, state.getFouls());
+    }
+
+    @Test
+    void turnPassesAfterFoulWithPocket() {
+        GameState state = new GameState();
+        Rules.apply(state, cleanShot(Ball.ONE, Ball.WHITE), state);
+
+        assertEquals(Game.Player.PLAYER_TWO, state.getPlayer());
+        assertEquals(Rules.FOUL_WHITE_POCKETED, state.getFouls());
+        assertTrue(state.isWhiteRespotted());
+        assertEquals(0, state.getPlayer1Score());
+    }
+
+    @Test
+    void rackIsRackedAgainAtRerackPocketed() {
+        GameState state = new GameState();
+        state.set(Game.Player.PLAYER_TWO, 3, 10, Rules.RERACK_POCKETED - 2);
+
+        Rules.apply(state, cleanShot(Ball.ONE), state);
+        assertFalse(state.isRacked());
+        assertEquals(Rules.RERACK_POCKETED - 1, state.getRackPocketed());
+
+        Rules.apply(state, cleanShot(Ball.TWO), state);
+        assertTrue(state.isRacked());
+        assertEquals(0, state.getRackPocketed());
+        assertEquals(12, state.getPlayer2Score());
+    }
+
+    @Test
+    void applyLeavesStateAloneForOtherNext() {
+        GameState state = new GameState();
+        state.set(Game.Player.PLAYER_ONE, 4, 2, 6);
+        GameState next = new GameState();
+
+        Rules.apply(state, cleanShot(Ball.ONE, Ball.TWO), next);
+
+        assertEquals(4, state.getPlayer1Score());
+        assertEquals(6, state.getRackPocketed());
+        assertEquals(6, next.getPlayer1Score());
+        assertEquals(8, next.getRackPocketed());
+    }
+
+    @Test
+    void applyIntoItselfEqualsApplyIntoOther() {
+        ShotEvents shot = cleanShot(Ball.SEVEN, Ball.WHITE);
+        GameState state = new GameState();
+        state.set(Game.Player.PLAYER_TWO, 5, 7, 13);
+        GameState other = new GameState();
+
+        Rules.apply(state, shot, other);
+        Rules.apply(state, shot, state);
+
+        assertEquals(other.getPlayer(), state.getPlayer());
+        assertEquals(other.getPlayer1Score(), state.getPlayer1Score());
+        assertEquals(other.getPlayer2Score(), state.getPlayer2Score());
+        assertEquals(other.getRackPocketed(), state.getRackPocketed());
+        assertEquals(other.getFouls(), state.getFouls());
+        assertEquals(other.isPlayerSwitched(), state.isPlayerSwitched());
+        assertEquals(other.isRacked(), state.isRacked());
+        assertEquals(other.isWhiteRespotted(), state.isWhiteRespotted());
+    }
+
+    @Test
+    void shotEventsSurvivePackAndUnpack() {
+        ShotEvents shot = new ShotEvents();
+        shot.struck(Ball.WHITE);
+        shot.collided(Ball.EIGHT, Ball.WHITE);
+        shot.pocketed(Ball.EIGHT);
+        shot.pocketed(Ball.FIFTEEN);
+        shot.pocketed(Ball.WHITE);
+
+        ShotEvents unpacked = new ShotEvents();
+        unpacked.unpack(shot.pack());
+
+        assertEquals(shot.pack(), unpacked.pack());
+        assertTrue(unpacked.isBallStruck());
+        assertFalse(unpacked.isDirectHit());
+        assertTrue(unpacked.isWhiteTouched());
+        assertTrue(unpacked.isWhitePocketed());
+        assertTrue(unpacked.isPocketed(Ball.EIGHT));
+        assertTrue(unpacked.isPocketed(Ball.FIFTEEN));
+        assertFalse(unpacked.isPocketed(Ball.ONE));
+        assertEquals(2, unpacked.getRegularPocketedCount());
+    }
+
+    @Test
+    void emptyShotEventsSurvivePackAndUnpack() {
+        ShotEvents unpacked = new ShotEvents();
+        unpacked.struck(Ball.ONE);
+        unpacked.unpack(new ShotEvents().pack());
+
+        assertFalse(unpacked.isBallStruck());
+        assertFalse(unpacked.isWhiteTouched());
+        assertEquals(0, unpacked.getRegularPocketedCount());
+    }
+}